@@ -0,0 +1,64 @@
+/*
+ * THE SOFTWARE IS PROVIDED "AS IS" WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE HEREBY DISCLAIMED.
+ */
+
+package com.github.egateam.jmh;
+
+import com.github.egateam.IntSpan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binary operations and relations between two sets of the same shape.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryBenchmark {
+
+    @Benchmark
+    public IntSpan union(SetState state) {
+        return state.A.union(state.B);
+    }
+
+    @Benchmark
+    public IntSpan intersect(SetState state) {
+        return state.A.intersect(state.B);
+    }
+
+    @Benchmark
+    public IntSpan diff(SetState state) {
+        return state.A.diff(state.B);
+    }
+
+    @Benchmark
+    public IntSpan xor(SetState state) {
+        return state.A.xor(state.B);
+    }
+
+    @Benchmark
+    public boolean equals(SetState state) {
+        return state.A.equals(state.B);
+    }
+
+    @Benchmark
+    public boolean subset(SetState state) {
+        return state.A.subset(state.B);
+    }
+
+    @Benchmark
+    public boolean overlaps(SetState state) {
+        return state.A.overlaps(state.B);
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * THE SOFTWARE IS PROVIDED "AS IS" WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE HEREBY DISCLAIMED.
+ */
+
+package com.github.egateam.jmh;
+
+import com.github.egateam.IntSpan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction, parsing and formatting.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreateBenchmark {
+
+    @Benchmark
+    public IntSpan copy(SetState state) {
+        return state.A.copy();
+    }
+
+    @Benchmark
+    public IntSpan fromElements(SetState state) {
+        // elements are only filled up to 10000 spans
+        return new IntSpan(state.elementsA);
+    }
+
+    @Benchmark
+    public IntSpan parse(SetState state) {
+        return new IntSpan(state.runlistA);
+    }
+
+    @Benchmark
+    public String format(SetState state) {
+        return state.A.toString();
+    }
+}
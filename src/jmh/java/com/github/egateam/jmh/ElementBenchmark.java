@@ -0,0 +1,79 @@
+/*
+ * THE SOFTWARE IS PROVIDED "AS IS" WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE HEREBY DISCLAIMED.
+ */
+
+package com.github.egateam.jmh;
+
+import com.github.egateam.IntSpan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per element operations, averaged over {@link SetState#QUERIES} random queries.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ElementBenchmark {
+
+    @Benchmark
+    @OperationsPerInvocation(SetState.QUERIES)
+    public void contains(SetState state, Blackhole bh) {
+        for ( int query : state.queries ) {
+            bh.consume(state.A.contains(query));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SetState.QUERIES)
+    public void at(SetState state, Blackhole bh) {
+        for ( int index : state.indexes ) {
+            bh.consume(state.A.at(index));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SetState.QUERIES)
+    public void index(SetState state, Blackhole bh) {
+        for ( int member : state.members ) {
+            bh.consume(state.A.index(member));
+        }
+    }
+
+    /**
+     * A fresh copy of A for each invocation, as addPair modifies the set.
+     */
+    @State(Scope.Thread)
+    public static class Target {
+        IntSpan set;
+        int     lower;
+
+        @Setup(Level.Invocation)
+        public void setUp(SetState state) {
+            set = state.A.copy();
+            lower = state.queries[0];
+        }
+    }
+
+    @Benchmark
+    public IntSpan addPair(Target target) {
+        return target.set.addPair(target.lower, target.lower + 50);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * THE SOFTWARE IS PROVIDED "AS IS" WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE HEREBY DISCLAIMED.
+ */
+
+package com.github.egateam.jmh;
+
+import com.github.egateam.IntSpan;
+import com.github.egateam.IntSpanGenerator;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * Two sets of the same shape from {@link IntSpanGenerator}, parameterized by span count and density
+ * (fraction of covered integers), plus random queries. Everything is deterministic.
+ */
+@State(Scope.Benchmark)
+public class SetState {
+    // Number of queries per invocation of per-element benchmarks
+    public static final int QUERIES = 1024;
+
+    @Param({"100", "10000", "1000000"})
+    public int spans;
+
+    @Param({"0.1", "0.5", "0.9"})
+    public double density;
+
+    public IntSpan A;
+    public IntSpan B;
+    public String  runlistA;
+    public int[]   elementsA;
+
+    public int[] queries;  // random integers in the range of A
+    public int[] indexes;  // valid indexes of A
+    public int[] members;  // elements of A
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // spans and gaps alternate with a mean period of 100 integers
+        int meanLength = Math.max(1, (int) Math.round(100 * density));
+        int meanGap    = Math.max(1, 100 - meanLength);
+
+        IntSpan[] pair = new IntSpanGenerator(1)
+            .spans(spans)
+            .spanLength(IntSpanGenerator.Lengths.uniform(1, 2 * meanLength - 1))
+            .gapLength(IntSpanGenerator.Lengths.uniform(1, 2 * meanGap - 1))
+            .overlap(0.5)
+            .generatePair();
+        A = pair[0];
+        B = pair[1];
+        runlistA = A.toString();
+        elementsA = spans <= 10000 ? A.toArray() : new int[0];
+
+        Random random = new Random(3);
+        queries = new int[QUERIES];
+        indexes = new int[QUERIES];
+        members = new int[QUERIES];
+        for ( int i = 0; i < QUERIES; i++ ) {
+            queries[i] = A.min() + random.nextInt(A.max() - A.min() + 1);
+            indexes[i] = 1 + random.nextInt(A.cardinality());
+            members[i] = A.at(indexes[i]);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * THE SOFTWARE IS PROVIDED "AS IS" WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE HEREBY DISCLAIMED.
+ */
+
+package com.github.egateam.jmh;
+
+import com.github.egateam.IntSpan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operations on spans of one set.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpanBenchmark {
+
+    @Benchmark
+    public IntSpan complement(SetState state) {
+        return state.A.complement();
+    }
+
+    @Benchmark
+    public IntSpan holes(SetState state) {
+        return state.A.holes();
+    }
+
+    @Benchmark
+    public IntSpan inset(SetState state) {
+        return state.A.inset(10);
+    }
+
+    @Benchmark
+    public IntSpan fill(SetState state) {
+        return state.A.fill(50);
+    }
+
+    @Benchmark
+    public IntSpan excise(SetState state) {
+        return state.A.excise(50);
+    }
+
+    @Benchmark
+    public IntSpan cover(SetState state) {
+        return state.A.cover();
+    }
+}
@@ -0,0 +1,173 @@
+/**
+ * <tt>ConcurrentIntSpan</tt> is a thread-safe set for many readers and a few writers.
+ * <p>
+ * The contents are an {@link ImmutableIntSpan} behind a volatile reference. Readers take no locks,
+ * each query sees one consistent version. Writers are serialized, each of them builds a new version
+ * with the linear merge and publishes it at once, so a write costs O(n) and never blocks readers.
+ * <pre>
+ * ConcurrentIntSpan mask = new ConcurrentIntSpan();
+ * // writer thread
+ * mask.addPair(100, 200);
+ * // reader threads
+ * mask.contains(150);
+ * ImmutableIntSpan snapshot = mask.snapshot(); // several queries on the same version
+ * </pre>
+ *
+ * @author Qiang Wang
+ * @since 1.7
+ */
+
+package com.github.egateam;
+
+@SuppressWarnings("WeakerAccess")
+public final class ConcurrentIntSpan {
+    private static final ImmutableIntSpan EMPTY = new IntSpan().freeze();
+
+    private volatile ImmutableIntSpan current;
+
+    //----------------------------------------------------------
+    // Constructors
+    //----------------------------------------------------------
+
+    /**
+     * Constructs an empty set.
+     */
+    public ConcurrentIntSpan() {
+        current = EMPTY;
+    }
+
+    /**
+     * Constructs a set with elements of the supplied set.
+     *
+     * @param supplied the supplied set
+     */
+    public ConcurrentIntSpan(IntSpan supplied) {
+        current = supplied.freeze();
+    }
+
+    //----------------------------------------------------------
+    // Lock-free reads
+    //----------------------------------------------------------
+
+    /**
+     * Returns the current version, which never changes afterwards.
+     *
+     * @return the current version
+     */
+    public ImmutableIntSpan snapshot() {
+        return current;
+    }
+
+    public boolean contains(int n) {
+        return current.contains(n);
+    }
+
+    public boolean containsAll(int[] ints) {
+        return current.containsAll(ints);
+    }
+
+    public boolean containsAny(int[] ints) {
+        return current.containsAny(ints);
+    }
+
+    public int cardinality() {
+        return current.cardinality();
+    }
+
+    public boolean isEmpty() {
+        return current.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return current.toString();
+    }
+
+    //----------------------------------------------------------
+    // Atomic writes
+    //----------------------------------------------------------
+
+    /**
+     * Adds the inclusive range of integers, atomically.
+     *
+     * @param lower lower bound of the range
+     * @param upper upper bound of the range
+     * @return this set for method chaining
+     * @throws AssertionError if lower is larger than upper
+     */
+    public ConcurrentIntSpan addPair(int lower, int upper) throws AssertionError {
+        return merge(new IntSpan(lower, upper));
+    }
+
+    /**
+     * Removes the inclusive range of integers, atomically.
+     *
+     * @param lower lower bound of the range
+     * @param upper upper bound of the range
+     * @return this set for method chaining
+     * @throws AssertionError if lower is larger than upper
+     */
+    public ConcurrentIntSpan removePair(int lower, int upper) throws AssertionError {
+        return subtract(new IntSpan(lower, upper));
+    }
+
+    /**
+     * Adds all elements of the supplied set, atomically.
+     *
+     * @param supplied the supplied set
+     * @return this set for method chaining
+     */
+    public synchronized ConcurrentIntSpan merge(IntSpan supplied) {
+        current = current.union(supplied);
+
+        return this;
+    }
+
+    /**
+     * Removes all elements of the supplied set, atomically.
+     *
+     * @param supplied the supplied set
+     * @return this set for method chaining
+     */
+    public synchronized ConcurrentIntSpan subtract(IntSpan supplied) {
+        current = current.diff(supplied);
+
+        return this;
+    }
+
+    /**
+     * Keeps only elements of the supplied set, atomically.
+     *
+     * @param supplied the supplied set
+     * @return this set for method chaining
+     */
+    public synchronized ConcurrentIntSpan retain(IntSpan supplied) {
+        current = current.intersect(supplied);
+
+        return this;
+    }
+
+    /**
+     * Replaces the contents, atomically.
+     *
+     * @param supplied the new contents
+     * @return the previous version
+     */
+    public synchronized ImmutableIntSpan replace(IntSpan supplied) {
+        ImmutableIntSpan previous = current;
+        current = supplied.freeze();
+
+        return previous;
+    }
+
+    /**
+     * Removes all elements, atomically.
+     *
+     * @return this set for method chaining
+     */
+    public synchronized ConcurrentIntSpan clear() {
+        current = EMPTY;
+
+        return this;
+    }
+}
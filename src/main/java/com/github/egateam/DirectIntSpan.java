@@ -0,0 +1,559 @@
+/**
+ * <tt>DirectIntSpan</tt> is a read-only set whose edges live outside the Java heap, in a direct or
+ * memory mapped {@link ByteBuffer}.
+ * <p>
+ * Edges are laid out as in {@link IntSpan}. Binary operations stage chunks of edges on the heap
+ * for the linear merge of <tt>IntSpan</tt>, and searches use a heap sample of every 64th edge to
+ * narrow a binary search of the buffer to a small window. So large sets cost the garbage collector
+ * little. Binary operations write their results into new direct buffers.
+ * <p>
+ * The API is the read-only core of <tt>IntSpan</tt>: contents and runlists, {@link #contains(int)},
+ * {@link #min()}, {@link #max()}, {@link #forEachSpan(IntIntProcedure)}, the four binary
+ * operations, equality and hash. For set relations, indexing and span operations, copy the set to
+ * the heap with {@link #toIntSpan()}.
+ * <p>
+ * Memory allocated by {@link #copyOf(IntSpan)} and the binary operations is owned by the set and
+ * freed by {@link #close()}, or by the garbage collector if the JVM doesn't allow freeing it
+ * explicitly. Calls in progress on other threads hold the memory, which is freed when the last of
+ * them returns. Owned memory is never exposed, {@link #buffer()} returns a copy of it. Wrapped
+ * buffers belong to the caller and are never freed. A closed set throws {@link
+ * IllegalStateException}.
+ *
+ * @author Qiang Wang
+ * @since 1.7
+ */
+
+package com.github.egateam;
+
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.procedures.IntIntProcedure;
+
+import java.io.Closeable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@SuppressWarnings("WeakerAccess")
+public final class DirectIntSpan implements Closeable {
+    // Edges staged on the heap per step of binary operations
+    private static final int CHUNK = 1 << 12;
+
+    // Distance of sampled edges
+    private static final int STRIDE = 1 << 6;
+
+    private final ByteBuffer bytes; // exactly the edges
+    private final IntBuffer  edges;
+    private final boolean    owned; // allocated here, and freed by close()
+    private final int        size;
+    private final int[]      samples; // every STRIDE-th edge
+
+    // Calls in progress, plus one held by the set until closed. Memory is freed when it drops to 0.
+    private final AtomicInteger users  = new AtomicInteger(1);
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    private DirectIntSpan(ByteBuffer bytes, boolean owned) {
+        this.bytes = bytes;
+        this.owned = owned;
+        this.edges = bytes.asIntBuffer();
+        this.size = edges.remaining();
+
+        samples = new int[(size + STRIDE - 1) / STRIDE];
+        for ( int i = 0; i < samples.length; i++ ) {
+            samples[i] = edges.get(i * STRIDE);
+        }
+    }
+
+    //----------------------------------------------------------
+    // Constructors
+    //----------------------------------------------------------
+
+    /**
+     * Returns a new set with edges copied from the supplied set into a direct buffer.
+     *
+     * @param supplied the supplied set
+     * @return a new set
+     */
+    public static DirectIntSpan copyOf(IntSpan supplied) {
+        IntArrayList edges  = supplied.getEdges();
+        ByteBuffer   memory = allocate(edges.size());
+        memory.asIntBuffer().put(edges.buffer, 0, edges.size());
+
+        return new DirectIntSpan(memory, true);
+    }
+
+    /**
+     * Returns a set on the remaining bytes of the supplied buffer, e.g. a part of a mapped file
+     * written by {@link #buffer()}. The buffer isn't copied or freed.
+     *
+     * @param buffer valid edges as ints, in the byte order of the buffer
+     * @return a new set
+     * @throws AssertionError if the ints are not valid edges
+     */
+    public static DirectIntSpan wrap(ByteBuffer buffer) throws AssertionError {
+        ByteBuffer bytes = buffer.slice().order(buffer.order());
+        if ( (bytes.remaining() & 3) != 0 ) {
+            throw new AssertionError(String.format("Not ints: %d bytes", bytes.remaining()));
+        }
+
+        IntBuffer view = bytes.asIntBuffer();
+        int       size = view.remaining();
+        if ( (size & 1) == 1 ) {
+            throw new AssertionError(String.format("Odd number of edges: %d", size));
+        }
+        for ( int i = 1; i < size; i++ ) {
+            if ( view.get(i - 1) >= view.get(i) ) {
+                throw new AssertionError(String.format("Edges not ascending at %d", i));
+            }
+        }
+
+        return new DirectIntSpan(bytes, false);
+    }
+
+    /**
+     * Returns a heap copy of this set.
+     *
+     * @return a new IntSpan
+     */
+    public IntSpan toIntSpan() {
+        IntBuffer view = acquire();
+        try {
+            IntArrayList newEdges = new IntArrayList(size);
+            view.duplicate().get(newEdges.buffer, 0, size);
+            newEdges.elementsCount = size;
+
+            return new IntSpan(newEdges);
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Returns read-only edges as bytes, e.g. for writing to a file. Owned memory is copied into a
+     * new direct buffer left to the garbage collector, so it stays valid after this set is closed.
+     * For a wrapped set, it's a view of the wrapped buffer.
+     *
+     * @return read-only edges, in the byte order of the buffer
+     */
+    public ByteBuffer buffer() {
+        acquire();
+        try {
+            ByteBuffer result = bytes;
+            if ( owned ) {
+                result = ByteBuffer.allocateDirect(bytes.capacity()).order(bytes.order());
+                result.put(bytes.duplicate());
+                result.flip();
+            }
+
+            return result.asReadOnlyBuffer().order(result.order());
+        } finally {
+            release();
+        }
+    }
+
+    //----------------------------------------------------------
+    // Set contents
+    //----------------------------------------------------------
+
+    public int edgeSize() {
+        if ( closed.get() ) throw closedError();
+
+        return size;
+    }
+
+    public int spanSize() {
+        return edgeSize() / 2;
+    }
+
+    public boolean isEmpty() {
+        return edgeSize() == 0;
+    }
+
+    public boolean isNotEmpty() {
+        return !isEmpty();
+    }
+
+    /**
+     * Returns the number of elements in this set, as a long for very large sets.
+     *
+     * @return the number of elements in this set
+     */
+    public long cardinality() {
+        IntBuffer view = acquire();
+        try {
+            long cardinality = 0;
+            for ( int i = 0; i < size; i += 2 ) {
+                cardinality += (long) view.get(i + 1) - view.get(i);
+            }
+
+            return cardinality;
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Returns <tt>true</tt> if this set contains the supplied integer, in O(log n).
+     *
+     * @param n the supplied integer
+     * @return <tt>true</tt> if this set contains n
+     */
+    public boolean contains(int n) {
+        IntBuffer view = acquire();
+        try {
+            return (findPos(view, n + 1) & 1) == 1;
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * @return the smallest element of this set
+     * @throws AssertionError for empty set
+     */
+    public int min() throws AssertionError {
+        if ( isEmpty() ) throw new AssertionError("Can't get extrema for empty IntSpan");
+
+        IntBuffer view = acquire();
+        try {
+            return view.get(0);
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * @return the largest element of this set
+     * @throws AssertionError for empty set
+     */
+    public int max() throws AssertionError {
+        if ( isEmpty() ) throw new AssertionError("Can't get extrema for empty IntSpan");
+
+        IntBuffer view = acquire();
+        try {
+            return view.get(size - 1) - 1;
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Applies the procedure to lower and upper bounds of each span.
+     *
+     * @param procedure the supplied procedure
+     * @param <T>       type of the procedure
+     * @return the supplied procedure
+     */
+    public <T extends IntIntProcedure> T forEachSpan(T procedure) {
+        IntBuffer view = acquire();
+        try {
+            for ( int i = 0; i < size; i += 2 ) {
+                procedure.apply(view.get(i), view.get(i + 1) - 1);
+            }
+        } finally {
+            release();
+        }
+
+        return procedure;
+    }
+
+    /**
+     * Returns the runlist of this set.
+     *
+     * @return the runlist
+     */
+    @Override
+    public String toString() {
+        if ( isEmpty() ) {
+            return IntSpan.getEmptyString();
+        }
+
+        final StringBuilder builder = new StringBuilder();
+        forEachSpan(new IntIntProcedure() {
+            @Override
+            public void apply(int lower, int upper) {
+                if ( builder.length() > 0 ) {
+                    builder.append(',');
+                }
+                builder.append(lower);
+                if ( lower != upper ) {
+                    builder.append('-').append(upper);
+                }
+            }
+        });
+
+        return builder.toString();
+    }
+
+    //----------------------------------------------------------
+    // Set binary operations (create new set)
+    //----------------------------------------------------------
+
+    public DirectIntSpan union(DirectIntSpan supplied) {
+        return sweep(this, supplied, IntSpan.OP_UNION);
+    }
+
+    public DirectIntSpan intersect(DirectIntSpan supplied) {
+        return sweep(this, supplied, IntSpan.OP_INTERSECT);
+    }
+
+    public DirectIntSpan diff(DirectIntSpan supplied) {
+        return sweep(this, supplied, IntSpan.OP_DIFF);
+    }
+
+    public DirectIntSpan xor(DirectIntSpan supplied) {
+        return sweep(this, supplied, IntSpan.OP_XOR);
+    }
+
+    //----------------------------------------------------------
+    // Set relations
+    //----------------------------------------------------------
+
+    /**
+     * Returns <tt>true</tt> if this set and the supplied heap set contain the same elements.
+     *
+     * @param supplied set to be compared
+     * @return <tt>true</tt> if this set and the supplied set contain the same elements
+     */
+    public boolean sameElements(IntSpan supplied) {
+        IntBuffer    view  = acquire();
+        IntArrayList other = supplied.getEdges();
+        try {
+            if ( size != other.size() ) {
+                return false;
+            }
+            for ( int i = 0; i < size; i++ ) {
+                if ( view.get(i) != other.get(i) ) {
+                    return false;
+                }
+            }
+
+            return true;
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Only equals to a <tt>DirectIntSpan</tt>, use {@link #sameElements(IntSpan)} for heap sets.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if ( !(obj instanceof DirectIntSpan) ) {
+            return false;
+        }
+
+        DirectIntSpan supplied = (DirectIntSpan) obj;
+        if ( size != supplied.edgeSize() ) {
+            return false;
+        }
+
+        IntBuffer view = acquire();
+        try {
+            IntBuffer other = supplied.acquire();
+            try {
+                return view.equals(other);
+            } finally {
+                supplied.release();
+            }
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * The same hash code as an {@link IntSpan} of the same elements.
+     */
+    @Override
+    public int hashCode() {
+        IntBuffer view = acquire();
+        try {
+            int hash = 1;
+            for ( int i = 0; i < size; i++ ) {
+                hash = 31 * hash + view.get(i);
+            }
+
+            return hash;
+        } finally {
+            release();
+        }
+    }
+
+    //----------------------------------------------------------
+    // Memory
+    //----------------------------------------------------------
+
+    /**
+     * Returns <tt>true</tt> if this set has been closed.
+     *
+     * @return <tt>true</tt> if this set has been closed
+     */
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * Frees the memory of this set, once calls in progress have returned. Closing a closed set has
+     * no effect.
+     */
+    @Override
+    public void close() {
+        if ( closed.compareAndSet(false, true) ) {
+            release();
+        }
+    }
+
+    //----------------------------------------------------------
+    // Private methods
+    //----------------------------------------------------------
+
+    /**
+     * Holds the memory for a call, which must be paired with release() in a finally block.
+     */
+    private IntBuffer acquire() throws IllegalStateException {
+        while ( true ) {
+            int count = users.get();
+            if ( count == 0 || closed.get() ) throw closedError();
+            if ( users.compareAndSet(count, count + 1) ) {
+                return edges;
+            }
+        }
+    }
+
+    private void release() {
+        if ( users.decrementAndGet() == 0 && owned ) {
+            free(bytes);
+        }
+    }
+
+    private static IllegalStateException closedError() {
+        return new IllegalStateException("DirectIntSpan is closed");
+    }
+
+    private static ByteBuffer allocate(int ints) {
+        return ByteBuffer.allocateDirect(ints * 4).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * The linear merge of IntSpan on chunks of edges.
+     * <p>
+     * Each step stages at most CHUNK edges of both sets, and merges those below hi, the smallest
+     * edge not staged. A span open at hi goes on in the next step, so its closing edge is dropped.
+     */
+    private static DirectIntSpan sweep(DirectIntSpan setA, DirectIntSpan setB, int op) {
+        IntBuffer a = setA.acquire().duplicate();
+        try {
+            IntBuffer b = setB.acquire().duplicate();
+            try {
+                return sweep(a, setA.size, b, setB.size, op);
+            } finally {
+                setB.release();
+            }
+        } finally {
+            setA.release();
+        }
+    }
+
+    private static DirectIntSpan sweep(IntBuffer a, int sizeA, IntBuffer b, int sizeB, int op) {
+        ByteBuffer memory = allocate(sizeA + sizeB);
+        IntBuffer  out    = memory.asIntBuffer();
+
+        int[] chunkA = new int[Math.min(CHUNK, sizeA)];
+        int[] chunkB = new int[Math.min(CHUNK, sizeB)];
+        int[] chunkR = new int[chunkA.length + chunkB.length + 1];
+
+        int i = 0, j = 0;
+        while ( i < sizeA || j < sizeB ) {
+            int lenA = Math.min(CHUNK, sizeA - i);
+            int lenB = Math.min(CHUNK, sizeB - j);
+            a.position(i);
+            a.get(chunkA, 0, lenA);
+            b.position(j);
+            b.get(chunkB, 0, lenB);
+
+            // Integer.MAX_VALUE is larger than any valid edge (POS_INF)
+            int hi = Math.min(i + lenA < sizeA ? a.get(i + lenA) : Integer.MAX_VALUE,
+                j + lenB < sizeB ? b.get(j + lenB) : Integer.MAX_VALUE);
+            int endA = IntSpan.findPos(chunkA, lenA, hi, 0);
+            int endB = IntSpan.findPos(chunkB, lenB, hi, 0);
+
+            // odd numbers of edges passed mean inside
+            int k = IntSpan.sweep(chunkA, 0, endA, (i & 1) == 1,
+                chunkB, 0, endB, (j & 1) == 1, op, hi, chunkR, 0);
+            if ( k > 0 && chunkR[k - 1] == hi ) {
+                k--;
+            }
+            out.put(chunkR, 0, k);
+
+            i += endA;
+            j += endB;
+        }
+
+        int k = out.position();
+        if ( k == sizeA + sizeB ) {
+            return new DirectIntSpan(memory, true);
+        }
+
+        // copy into memory of the exact size
+        ByteBuffer exact = allocate(k);
+        out.flip();
+        exact.asIntBuffer().put(out);
+        free(memory);
+
+        return new DirectIntSpan(exact, true);
+    }
+
+    /**
+     * findPos of IntSpan. The samples locate a window of at most STRIDE + 1 edges containing the
+     * position, which is searched in place.
+     */
+    private int findPos(IntBuffer view, int val) {
+        int q    = IntSpan.findPos(samples, samples.length, val, 0);
+        int low  = Math.max(q - 1, 0) * STRIDE;
+        int high = Math.min(q * STRIDE + 1, size);
+
+        while ( low < high ) {
+            int mid  = (low + high) >>> 1;
+            int edge = view.get(mid);
+            if ( val < edge ) {
+                high = mid;
+            } else if ( val > edge ) {
+                low = mid + 1;
+            } else {
+                return mid;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Frees a direct buffer now if the JVM allows, otherwise leaves it to the garbage collector.
+     */
+    private static void free(ByteBuffer buffer) {
+        try {
+            // Java 9 and later
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method   clean       = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field    field       = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            clean.invoke(field.get(null), buffer);
+            return;
+        } catch ( Exception ignored ) {
+        }
+
+        try {
+            // Java 7 and 8
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if ( cleaner != null ) {
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+        } catch ( Exception ignored ) {
+        }
+    }
+}
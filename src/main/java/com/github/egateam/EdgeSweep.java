@@ -0,0 +1,125 @@
+/**
+ * <tt>EdgeSweep</tt> walks edges of many sets in order, keeping the number of sets covering the
+ * current position.
+ * <p>
+ * A min-heap holds one cursor per set, keyed by its next edge. Each {@link #next()} pops all edges
+ * at the next position, so k sets of n edges in total are swept in O(n log k) without copying.
+ * <pre>
+ * EdgeSweep sweep = new EdgeSweep(edgeLists);
+ * while ( sweep.next() ) {
+ *     // [sweep.position(), next position) is covered by sweep.depth() sets
+ * }
+ * </pre>
+ *
+ * @author Qiang Wang
+ * @since 1.7
+ */
+
+package com.github.egateam;
+
+import com.carrotsearch.hppc.IntArrayList;
+
+import java.util.List;
+
+final class EdgeSweep {
+    private final int[][] buffers;
+    private final int[]   sizes;
+    private final int[]   cursors;
+
+    // indexes of sets with remaining edges
+    private final int[] heap;
+    private int         heapSize = 0;
+
+    private int position;
+    private int depth = 0;
+
+    /**
+     * @param edgeLists valid edges of sets, not modified
+     */
+    EdgeSweep(List<IntArrayList> edgeLists) {
+        int count = edgeLists.size();
+        buffers = new int[count][];
+        sizes = new int[count];
+        cursors = new int[count];
+        heap = new int[count];
+
+        for ( int i = 0; i < count; i++ ) {
+            IntArrayList edges = edgeLists.get(i);
+            buffers[i] = edges.buffer;
+            sizes[i] = edges.size();
+            if ( sizes[i] > 0 ) {
+                heap[heapSize++] = i;
+            }
+        }
+
+        for ( int i = heapSize / 2 - 1; i >= 0; i-- ) {
+            siftDown(i);
+        }
+    }
+
+    /**
+     * Moves to the next position where some edges are, updating the depth.
+     *
+     * @return <tt>false</tt> if all edges have been swept
+     */
+    boolean next() {
+        if ( heapSize == 0 ) {
+            return false;
+        }
+
+        position = key(heap[0]);
+        while ( heapSize > 0 && key(heap[0]) == position ) {
+            int set = heap[0];
+
+            // lower edges are at even indexes, upper edges at odd ones
+            depth += (cursors[set] & 1) == 0 ? 1 : -1;
+            cursors[set]++;
+
+            if ( cursors[set] == sizes[set] ) {
+                heap[0] = heap[--heapSize];
+            }
+            siftDown(0);
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the current position
+     */
+    int position() {
+        return position;
+    }
+
+    /**
+     * @return the number of sets covering [position(), the next position)
+     */
+    int depth() {
+        return depth;
+    }
+
+    private int key(int set) {
+        return buffers[set][cursors[set]];
+    }
+
+    private void siftDown(int i) {
+        if ( heapSize == 0 ) {
+            return;
+        }
+
+        int set = heap[i];
+        int val = key(set);
+        while ( true ) {
+            int child = 2 * i + 1;
+            if ( child >= heapSize ) break;
+            if ( child + 1 < heapSize && key(heap[child + 1]) < key(heap[child]) ) {
+                child++;
+            }
+            if ( key(heap[child]) >= val ) break;
+
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = set;
+    }
+}
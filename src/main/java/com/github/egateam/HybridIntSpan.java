@@ -0,0 +1,735 @@
+/**
+ * <tt>HybridIntSpan</tt> is an immutable set for fragmented integers, like variant positions.
+ * <p>
+ * Spans cost two edges each, so a set of isolated integers takes 8 bytes per element in
+ * {@link IntSpan}. Here the integer space is chunked into blocks of 2^16 integers sharing the high
+ * 16 bits, and each block is stored in the smallest of three forms:
+ * <ul>
+ * <li>a sorted array of the low 16 bits, 2 bytes per element, for sparse blocks</li>
+ * <li>a bitmap of 1024 longs, 8 KB, for dense and fragmented blocks</li>
+ * <li>runs as low edges, 8 bytes per span, for long spans</li>
+ * </ul>
+ * Set operations walk both sets block by block. Blocks only in one set are shared, not copied, and
+ * pairs of blocks are combined by word-wise bit operations, array merges or the linear merge of
+ * edges.
+ * <pre>
+ * HybridIntSpan snps = new HybridIntSpan(positions);       // int[]
+ * HybridIntSpan exons = new HybridIntSpan(new IntSpan("1001-2000,5001-9000"));
+ * snps.intersect(exons).cardinality();
+ * snps.intersect(exons).toIntSpan();
+ * </pre>
+ *
+ * @author Qiang Wang
+ * @since 1.7
+ */
+
+package com.github.egateam;
+
+import com.carrotsearch.hppc.IntArrayList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@SuppressWarnings("WeakerAccess")
+public final class HybridIntSpan {
+    // Each block holds 2^16 integers sharing the high 16 bits
+    private static final int BLOCK_BITS = 16;
+    private static final int BLOCK_SIZE = 1 << BLOCK_BITS;
+    private static final int WORDS      = BLOCK_SIZE / 64;
+
+    // Forms of blocks
+    static final int ARRAY  = 0;
+    static final int BITMAP = 1;
+    static final int RUNS   = 2;
+
+    // Signed high 16 bits of blocks, ascending, so blocks are in the order of integers
+    private final int[]   keys;
+    private final Block[] blocks;
+
+    //----------------------------------------------------------
+    // Constructors
+    //----------------------------------------------------------
+
+    /**
+     * Constructs an empty set.
+     */
+    public HybridIntSpan() {
+        this(new int[0], new Block[0]);
+    }
+
+    /**
+     * Constructs a set with elements of the supplied set.
+     *
+     * @param supplied the supplied set
+     */
+    public HybridIntSpan(IntSpan supplied) {
+        IntArrayList edges = supplied.getEdges();
+
+        IntArrayList newKeys   = new IntArrayList();
+        List<Block>  newBlocks = new ArrayList<>();
+        IntArrayList lows      = new IntArrayList(); // low edges of the current block
+
+        int key = 0;
+        for ( int i = 0; i < edges.size(); i += 2 ) {
+            int lower = edges.get(i);
+            int upper = edges.get(i + 1);
+
+            // split the span on block boundaries
+            while ( lower < upper ) {
+                int k    = lower >> BLOCK_BITS;
+                int base = k << BLOCK_BITS;
+                int end  = (int) Math.min(upper, (long) base + BLOCK_SIZE);
+
+                if ( k != key && !lows.isEmpty() ) {
+                    newKeys.add(key);
+                    newBlocks.add(Block.ofEdges(lows.buffer, lows.size()));
+                    lows.clear();
+                }
+                key = k;
+                lows.add(lower - base, end - base);
+                lower = end;
+            }
+        }
+        if ( !lows.isEmpty() ) {
+            newKeys.add(key);
+            newBlocks.add(Block.ofEdges(lows.buffer, lows.size()));
+        }
+
+        this.keys = newKeys.toArray();
+        this.blocks = newBlocks.toArray(new Block[newBlocks.size()]);
+    }
+
+    /**
+     * Constructs a set with the supplied integers, in any order and with duplicates.
+     *
+     * @param ints the supplied integers
+     * @throws AssertionError if any integer is out of [getNegInf(), getPosInf()]
+     */
+    public HybridIntSpan(int[] ints) throws AssertionError {
+        int[] sorted = Arrays.copyOf(ints, ints.length);
+        Arrays.sort(sorted);
+        if ( sorted.length > 0 ) {
+            int first = sorted[0];
+            int last  = sorted[sorted.length - 1];
+            if ( first < IntSpan.getNegInf() || last > IntSpan.getPosInf() ) {
+                throw new AssertionError(String.format("Bad value: %d", first < IntSpan.getNegInf() ? first : last));
+            }
+        }
+
+        IntArrayList newKeys   = new IntArrayList();
+        List<Block>  newBlocks = new ArrayList<>();
+        char[]       lows      = new char[Math.min(sorted.length, BLOCK_SIZE)];
+
+        int i = 0;
+        while ( i < sorted.length ) {
+            int key = sorted[i] >> BLOCK_BITS;
+            int n   = 0;
+            while ( i < sorted.length && sorted[i] >> BLOCK_BITS == key ) {
+                char low = (char) sorted[i++];
+                if ( n == 0 || lows[n - 1] != low ) {
+                    lows[n++] = low;
+                }
+            }
+            newKeys.add(key);
+            newBlocks.add(Block.ofValues(lows, n));
+        }
+
+        this.keys = newKeys.toArray();
+        this.blocks = newBlocks.toArray(new Block[newBlocks.size()]);
+    }
+
+    private HybridIntSpan(int[] keys, Block[] blocks) {
+        this.keys = keys;
+        this.blocks = blocks;
+    }
+
+    /**
+     * Returns a new {@link IntSpan} with the same elements.
+     *
+     * @return a new set
+     */
+    public IntSpan toIntSpan() {
+        IntArrayList edges = new IntArrayList();
+        for ( int b = 0; b < blocks.length; b++ ) {
+            int   base = keys[b] << BLOCK_BITS;
+            int[] lows = blocks[b].toEdges();
+            for ( int i = 0; i < lows.length; i += 2 ) {
+                int lower = base + lows[i];
+                int upper = base + lows[i + 1];
+
+                int size = edges.size();
+                if ( size > 0 && edges.get(size - 1) == lower ) {
+                    // the span goes on from the previous block
+                    edges.set(size - 1, upper);
+                } else {
+                    edges.add(lower, upper);
+                }
+            }
+        }
+
+        return new IntSpan(edges);
+    }
+
+    //----------------------------------------------------------
+    // Queries
+    //----------------------------------------------------------
+
+    public boolean isEmpty() {
+        return blocks.length == 0;
+    }
+
+    /**
+     * @return the number of elements
+     */
+    public long cardinality() {
+        long cardinality = 0;
+        for ( Block block : blocks ) {
+            cardinality += block.cardinality;
+        }
+
+        return cardinality;
+    }
+
+    /**
+     * Returns <tt>true</tt> if the set contains the supplied integer, in O(log n).
+     *
+     * @param val the supplied integer
+     * @return <tt>true</tt> if val is in the set
+     */
+    public boolean contains(int val) {
+        int b = Arrays.binarySearch(keys, val >> BLOCK_BITS);
+
+        return b >= 0 && blocks[b].contains(val & (BLOCK_SIZE - 1));
+    }
+
+    /**
+     * @return the number of non-empty blocks
+     */
+    public int blockSize() {
+        return blocks.length;
+    }
+
+    /**
+     * @param i index of the block, from 0
+     * @return form of the i-th block, {@link #ARRAY}, {@link #BITMAP} or {@link #RUNS}
+     */
+    int blockForm(int i) {
+        return blocks[i].form;
+    }
+
+    /**
+     * Returns the estimated memory of the set, block contents plus 16 bytes of headers per block.
+     *
+     * @return the estimated number of bytes
+     */
+    public long sizeInBytes() {
+        long bytes = 4L * keys.length;
+        for ( Block block : blocks ) {
+            bytes += 16 + block.sizeInBytes();
+        }
+
+        return bytes;
+    }
+
+    //----------------------------------------------------------
+    // Set operations
+    //----------------------------------------------------------
+
+    /**
+     * Returns a new set of elements in this set or the supplied set.
+     *
+     * @param supplied the supplied set
+     * @return a new set
+     */
+    public HybridIntSpan union(HybridIntSpan supplied) {
+        return apply(supplied, IntSpan.OP_UNION);
+    }
+
+    /**
+     * Returns a new set of elements in both this set and the supplied set.
+     *
+     * @param supplied the supplied set
+     * @return a new set
+     */
+    public HybridIntSpan intersect(HybridIntSpan supplied) {
+        return apply(supplied, IntSpan.OP_INTERSECT);
+    }
+
+    /**
+     * Returns a new set of elements in this set but not in the supplied set.
+     *
+     * @param supplied the supplied set
+     * @return a new set
+     */
+    public HybridIntSpan diff(HybridIntSpan supplied) {
+        return apply(supplied, IntSpan.OP_DIFF);
+    }
+
+    /**
+     * Returns a new set of elements in exactly one of this set and the supplied set.
+     *
+     * @param supplied the supplied set
+     * @return a new set
+     */
+    public HybridIntSpan xor(HybridIntSpan supplied) {
+        return apply(supplied, IntSpan.OP_XOR);
+    }
+
+    //----------------------------------------------------------
+    // Objects
+    //----------------------------------------------------------
+
+    /**
+     * Forms of blocks are decided by their contents, so equal sets have equal blocks.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if ( this == o ) return true;
+        if ( !(o instanceof HybridIntSpan) ) return false;
+
+        HybridIntSpan that = (HybridIntSpan) o;
+        return Arrays.equals(keys, that.keys) && Arrays.equals(blocks, that.blocks);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(keys) + Arrays.hashCode(blocks);
+    }
+
+    @Override
+    public String toString() {
+        return toIntSpan().toString();
+    }
+
+    //----------------------------------------------------------
+    // Private methods
+    //----------------------------------------------------------
+
+    private HybridIntSpan apply(HybridIntSpan supplied, int op) {
+        int   sizeA = keys.length;
+        int   sizeB = supplied.keys.length;
+        int[] newKeys = new int[sizeA + sizeB];
+
+        Block[] newBlocks = new Block[sizeA + sizeB];
+
+        int i = 0, j = 0, k = 0;
+        while ( i < sizeA || j < sizeB ) {
+            // Integer.MAX_VALUE is larger than any key
+            int keyA = i < sizeA ? keys[i] : Integer.MAX_VALUE;
+            int keyB = j < sizeB ? supplied.keys[j] : Integer.MAX_VALUE;
+
+            int   key;
+            Block block;
+            if ( keyA == keyB ) {
+                key = keyA;
+                block = Block.apply(blocks[i++], supplied.blocks[j++], op);
+            } else if ( keyA < keyB ) {
+                key = keyA;
+                block = op == IntSpan.OP_INTERSECT ? null : blocks[i];
+                i++;
+            } else {
+                key = keyB;
+                block = op == IntSpan.OP_UNION || op == IntSpan.OP_XOR ? supplied.blocks[j] : null;
+                j++;
+            }
+
+            if ( block != null ) {
+                newKeys[k] = key;
+                newBlocks[k++] = block;
+            }
+        }
+
+        return new HybridIntSpan(Arrays.copyOf(newKeys, k), Arrays.copyOf(newBlocks, k));
+    }
+
+    /**
+     * A non-empty block in one of three forms, never modified after construction.
+     */
+    private static final class Block {
+        final int    form;
+        final char[] values; // ARRAY, sorted low 16 bits
+        final long[] words;  // BITMAP
+        final int[]  edges;  // RUNS, low edges, upper ones are exclusive and up to 2^16
+
+        final int cardinality;
+
+        private Block(int form, char[] values, long[] words, int[] edges, int cardinality) {
+            this.form = form;
+            this.values = values;
+            this.words = words;
+            this.edges = edges;
+            this.cardinality = cardinality;
+        }
+
+        //----------------------------------------------------------
+        // Factories, each one picks the smallest form
+        //----------------------------------------------------------
+
+        /**
+         * @return a new block, or <tt>null</tt> if n is 0
+         */
+        static Block ofValues(char[] values, int n) {
+            if ( n == 0 ) {
+                return null;
+            }
+
+            int runs = 1;
+            for ( int i = 1; i < n; i++ ) {
+                if ( values[i] != values[i - 1] + 1 ) {
+                    runs++;
+                }
+            }
+
+            switch ( choose(n, runs) ) {
+                case ARRAY:
+                    return new Block(ARRAY, Arrays.copyOf(values, n), null, null, n);
+                case RUNS:
+                    int[] edges = new int[runs * 2];
+                    int k = 0;
+                    for ( int i = 0; i < n; i++ ) {
+                        if ( k > 0 && edges[k - 1] == values[i] ) {
+                            edges[k - 1]++;
+                        } else {
+                            edges[k++] = values[i];
+                            edges[k++] = values[i] + 1;
+                        }
+                    }
+                    return new Block(RUNS, null, null, edges, n);
+                default:
+                    long[] words = new long[WORDS];
+                    for ( int i = 0; i < n; i++ ) {
+                        words[values[i] >>> 6] |= 1L << values[i];
+                    }
+                    return new Block(BITMAP, null, words, null, n);
+            }
+        }
+
+        /**
+         * @return a new block, or <tt>null</tt> if n is 0
+         */
+        static Block ofEdges(int[] edges, int n) {
+            if ( n == 0 ) {
+                return null;
+            }
+
+            int cardinality = 0;
+            for ( int i = 0; i < n; i += 2 ) {
+                cardinality += edges[i + 1] - edges[i];
+            }
+
+            switch ( choose(cardinality, n / 2) ) {
+                case RUNS:
+                    return new Block(RUNS, null, null, Arrays.copyOf(edges, n), cardinality);
+                case ARRAY:
+                    char[] values = new char[cardinality];
+                    int k = 0;
+                    for ( int i = 0; i < n; i += 2 ) {
+                        for ( int val = edges[i]; val < edges[i + 1]; val++ ) {
+                            values[k++] = (char) val;
+                        }
+                    }
+                    return new Block(ARRAY, values, null, null, cardinality);
+                default:
+                    long[] words = new long[WORDS];
+                    for ( int i = 0; i < n; i += 2 ) {
+                        setRange(words, edges[i], edges[i + 1]);
+                    }
+                    return new Block(BITMAP, null, words, null, cardinality);
+            }
+        }
+
+        /**
+         * @param words a bitmap owned by the new block
+         * @return a new block, or <tt>null</tt> if no bits are set
+         */
+        static Block ofWords(long[] words) {
+            int  cardinality = 0;
+            int  runs        = 0;
+            long previous    = 0;
+            for ( long word : words ) {
+                cardinality += Long.bitCount(word);
+                // bits set with the lower neighbour unset start runs
+                runs += Long.bitCount(word & ~(word << 1 | previous >>> 63));
+                previous = word;
+            }
+            if ( cardinality == 0 ) {
+                return null;
+            }
+
+            switch ( choose(cardinality, runs) ) {
+                case BITMAP:
+                    return new Block(BITMAP, null, words, null, cardinality);
+                case RUNS:
+                    return new Block(RUNS, null, null, wordsToEdges(words, runs), cardinality);
+                default:
+                    char[] values = new char[cardinality];
+                    int k = 0;
+                    for ( int w = 0; w < WORDS; w++ ) {
+                        long word = words[w];
+                        while ( word != 0 ) {
+                            values[k++] = (char) (w * 64 + Long.numberOfTrailingZeros(word));
+                            word &= word - 1;
+                        }
+                    }
+                    return new Block(ARRAY, values, null, null, cardinality);
+            }
+        }
+
+        /**
+         * Picks the smallest form, runs first and bitmaps last on ties.
+         */
+        private static int choose(int cardinality, int runs) {
+            long arrayBytes  = 2L * cardinality;
+            long runsBytes   = 8L * runs;
+            long bitmapBytes = 8L * WORDS;
+
+            if ( runsBytes <= arrayBytes && runsBytes <= bitmapBytes ) {
+                return RUNS;
+            } else if ( arrayBytes <= bitmapBytes ) {
+                return ARRAY;
+            } else {
+                return BITMAP;
+            }
+        }
+
+        //----------------------------------------------------------
+        // Operations
+        //----------------------------------------------------------
+
+        /**
+         * @return a new block, or <tt>null</tt> if the result is empty
+         */
+        static Block apply(Block a, Block b, int op) {
+            if ( a.form == BITMAP || b.form == BITMAP ) {
+                long[] x = a.toWords();
+                long[] y = b.toWords();
+
+                long[] words = new long[WORDS];
+                for ( int w = 0; w < WORDS; w++ ) {
+                    switch ( op ) {
+                        case IntSpan.OP_UNION:
+                            words[w] = x[w] | y[w];
+                            break;
+                        case IntSpan.OP_INTERSECT:
+                            words[w] = x[w] & y[w];
+                            break;
+                        case IntSpan.OP_DIFF:
+                            words[w] = x[w] & ~y[w];
+                            break;
+                        default:
+                            words[w] = x[w] ^ y[w];
+                    }
+                }
+
+                return ofWords(words);
+            } else if ( a.form == ARRAY && b.form == ARRAY ) {
+                return mergeValues(a.values, b.values, op);
+            } else {
+                int[] x = a.toEdges();
+                int[] y = b.toEdges();
+
+                int[] out = new int[x.length + y.length];
+                int   n   = IntSpan.sweep(x, 0, x.length, false, y, 0, y.length, false, op, BLOCK_SIZE, out, 0);
+
+                return ofEdges(out, n);
+            }
+        }
+
+        private static Block mergeValues(char[] x, char[] y, int op) {
+            char[] out = new char[x.length + y.length];
+
+            int i = 0, j = 0, k = 0;
+            while ( i < x.length || j < y.length ) {
+                // BLOCK_SIZE is larger than any value
+                int valX = i < x.length ? x[i] : BLOCK_SIZE;
+                int valY = j < y.length ? y[j] : BLOCK_SIZE;
+                int val  = Math.min(valX, valY);
+
+                boolean inX = valX == val;
+                boolean inY = valY == val;
+                if ( inX ) i++;
+                if ( inY ) j++;
+
+                boolean in;
+                switch ( op ) {
+                    case IntSpan.OP_UNION:
+                        in = true;
+                        break;
+                    case IntSpan.OP_INTERSECT:
+                        in = inX && inY;
+                        break;
+                    case IntSpan.OP_DIFF:
+                        in = inX && !inY;
+                        break;
+                    default:
+                        in = inX != inY;
+                }
+                if ( in ) {
+                    out[k++] = (char) val;
+                }
+            }
+
+            return ofValues(out, k);
+        }
+
+        boolean contains(int low) {
+            switch ( form ) {
+                case ARRAY:
+                    return Arrays.binarySearch(values, (char) low) >= 0;
+                case BITMAP:
+                    return (words[low >>> 6] & 1L << low) != 0;
+                default:
+                    int i = Arrays.binarySearch(edges, low);
+                    // on a lower edge, or after an odd number of edges
+                    return i >= 0 ? (i & 1) == 0 : (-i - 1 & 1) == 1;
+            }
+        }
+
+        int sizeInBytes() {
+            switch ( form ) {
+                case ARRAY:
+                    return 2 * values.length;
+                case BITMAP:
+                    return 8 * WORDS;
+                default:
+                    return 4 * edges.length;
+            }
+        }
+
+        /**
+         * @return low edges, shared by RUNS blocks
+         */
+        int[] toEdges() {
+            switch ( form ) {
+                case RUNS:
+                    return edges;
+                case BITMAP:
+                    int runs = 0;
+                    long previous = 0;
+                    for ( long word : words ) {
+                        runs += Long.bitCount(word & ~(word << 1 | previous >>> 63));
+                        previous = word;
+                    }
+                    return wordsToEdges(words, runs);
+                default:
+                    IntArrayList list = new IntArrayList();
+                    for ( char val : values ) {
+                        int size = list.size();
+                        if ( size > 0 && list.get(size - 1) == val ) {
+                            list.set(size - 1, val + 1);
+                        } else {
+                            list.add(val, val + 1);
+                        }
+                    }
+                    return list.toArray();
+            }
+        }
+
+        /**
+         * @return a bitmap, shared by BITMAP blocks
+         */
+        long[] toWords() {
+            switch ( form ) {
+                case BITMAP:
+                    return words;
+                case ARRAY:
+                    long[] newWords = new long[WORDS];
+                    for ( char val : values ) {
+                        newWords[val >>> 6] |= 1L << val;
+                    }
+                    return newWords;
+                default:
+                    long[] runWords = new long[WORDS];
+                    for ( int i = 0; i < edges.length; i += 2 ) {
+                        setRange(runWords, edges[i], edges[i + 1]);
+                    }
+                    return runWords;
+            }
+        }
+
+        /**
+         * Sets bits in [from, to).
+         */
+        private static void setRange(long[] words, int from, int to) {
+            if ( from >= to ) {
+                return;
+            }
+
+            int first = from >>> 6;
+            int last  = (to - 1) >>> 6;
+
+            // shifts of longs use the lowest 6 bits only
+            long firstMask = -1L << from;
+            long lastMask  = -1L >>> -to;
+            if ( first == last ) {
+                words[first] |= firstMask & lastMask;
+            } else {
+                words[first] |= firstMask;
+                for ( int w = first + 1; w < last; w++ ) {
+                    words[w] = -1L;
+                }
+                words[last] |= lastMask;
+            }
+        }
+
+        private static int[] wordsToEdges(long[] words, int runs) {
+            int[] edges = new int[runs * 2];
+
+            int k    = 0;
+            int from = nextBit(words, 0, false);
+            while ( from < BLOCK_SIZE ) {
+                int to = nextBit(words, from, true);
+                edges[k++] = from;
+                edges[k++] = to;
+                from = nextBit(words, to, false);
+            }
+
+            return edges;
+        }
+
+        /**
+         * @return index of the first set (or unset) bit from the supplied index, or 2^16 if none
+         */
+        private static int nextBit(long[] words, int from, boolean unset) {
+            if ( from >= BLOCK_SIZE ) {
+                return BLOCK_SIZE;
+            }
+
+            int  w    = from >>> 6;
+            long word = (unset ? ~words[w] : words[w]) & -1L << from;
+            while ( word == 0 ) {
+                if ( ++w == WORDS ) {
+                    return BLOCK_SIZE;
+                }
+                word = unset ? ~words[w] : words[w];
+            }
+
+            return w * 64 + Long.numberOfTrailingZeros(word);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if ( this == o ) return true;
+            if ( !(o instanceof Block) ) return false;
+
+            Block that = (Block) o;
+            return form == that.form && cardinality == that.cardinality
+                && Arrays.equals(values, that.values)
+                && Arrays.equals(words, that.words)
+                && Arrays.equals(edges, that.edges);
+        }
+
+        @Override
+        public int hashCode() {
+            switch ( form ) {
+                case ARRAY:
+                    return Arrays.hashCode(values);
+                case BITMAP:
+                    return Arrays.hashCode(words);
+                default:
+                    return Arrays.hashCode(edges);
+            }
+        }
+    }
+}
@@ -0,0 +1,308 @@
+/**
+ * <tt>ImmutableIntSpan</tt> is a frozen {@link IntSpan}.
+ * <p>
+ * Edges are stored in an exact-size array, and cardinality, extrema, hash and runlist are cached.
+ * Mutators throw {@link UnsupportedOperationException}, copy() returns the set itself, and the
+ * binary operations return frozen sets. Instances can be shared between threads without copying.
+ * <p>
+ * Created by {@link IntSpan#freeze()}.
+ *
+ * @author Qiang Wang
+ * @since 1.7
+ */
+
+package com.github.egateam;
+
+import com.carrotsearch.hppc.IntArrayList;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+@SuppressWarnings("WeakerAccess")
+public final class ImmutableIntSpan extends IntSpan {
+    private static final String IMMUTABLE_MESSAGE = "ImmutableIntSpan can't be modified";
+
+    private final int cardinality;
+    private final int min;
+    private final int max;
+    private final int hash;
+
+    // Built on first call of toString()
+    private String runlist;
+
+    /**
+     * Constructs a frozen copy of the supplied set.
+     *
+     * @param supplied the supplied set
+     */
+    ImmutableIntSpan(IntSpan supplied) {
+        this(exactEdges(supplied.getEdges()));
+    }
+
+    /**
+     * Constructs a frozen set on the supplied edges, which are owned by the set from now on. Edges
+     * are copied only if their buffer is larger than needed.
+     *
+     * @param edges valid edges
+     */
+    ImmutableIntSpan(IntArrayList edges) {
+        super(edges.buffer.length == edges.size() ? edges : exactEdges(edges));
+
+        // Build the rank index eagerly, so no lazy state is written after publication
+        cardinality = getRanks()[spanSize()];
+        min = isEmpty() ? 0 : super.min();
+        max = isEmpty() ? 0 : super.max();
+        hash = super.hashCode();
+    }
+
+    private static IntArrayList exactEdges(IntArrayList edges) {
+        IntArrayList newEdges = new IntArrayList(0);
+        newEdges.buffer = Arrays.copyOf(edges.buffer, edges.size());
+        newEdges.elementsCount = edges.size();
+
+        return newEdges;
+    }
+
+    //----------------------------------------------------------
+    // Cached values
+    //----------------------------------------------------------
+
+    @Override
+    public int cardinality() {
+        return cardinality;
+    }
+
+    @Override
+    public int min() throws AssertionError {
+        if ( isEmpty() ) throw new AssertionError("Can't get extrema for empty IntSpan");
+        return min;
+    }
+
+    @Override
+    public int max() throws AssertionError {
+        if ( isEmpty() ) throw new AssertionError("Can't get extrema for empty IntSpan");
+        return max;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        String result = runlist;
+        if ( result == null ) {
+            result = super.toString();
+            runlist = result;
+        }
+
+        return result;
+    }
+
+    //----------------------------------------------------------
+    // Copies share the storage
+    //----------------------------------------------------------
+
+    @Override
+    public IntSpan copy() {
+        return this;
+    }
+
+    @Override
+    public ImmutableIntSpan freeze() {
+        return this;
+    }
+
+    //----------------------------------------------------------
+    // Operations returning frozen sets
+    //----------------------------------------------------------
+
+    @Override
+    public ImmutableIntSpan union(IntSpan supplied) {
+        return super.union(supplied).freeze();
+    }
+
+    @Override
+    public ImmutableIntSpan complement() {
+        return super.complement().freeze();
+    }
+
+    @Override
+    public ImmutableIntSpan diff(IntSpan supplied) {
+        return super.diff(supplied).freeze();
+    }
+
+    @Override
+    public ImmutableIntSpan intersect(IntSpan supplied) {
+        return super.intersect(supplied).freeze();
+    }
+
+    @Override
+    public ImmutableIntSpan xor(IntSpan supplied) {
+        return super.xor(supplied).freeze();
+    }
+
+    @Override
+    public ImmutableIntSpan union(IntSpan supplied, ForkJoinPool pool) {
+        return super.union(supplied, pool).freeze();
+    }
+
+    @Override
+    public ImmutableIntSpan diff(IntSpan supplied, ForkJoinPool pool) {
+        return super.diff(supplied, pool).freeze();
+    }
+
+    @Override
+    public ImmutableIntSpan intersect(IntSpan supplied, ForkJoinPool pool) {
+        return super.intersect(supplied, pool).freeze();
+    }
+
+    @Override
+    public ImmutableIntSpan xor(IntSpan supplied, ForkJoinPool pool) {
+        return super.xor(supplied, pool).freeze();
+    }
+
+    @Override
+    public ImmutableIntSpan slice(int from, int to) throws AssertionError {
+        return super.slice(from, to).freeze();
+    }
+
+    @Override
+    public ImmutableIntSpan cover() {
+        return super.cover().freeze();
+    }
+
+    @Override
+    public ImmutableIntSpan holes() {
+        return super.holes().freeze();
+    }
+
+    @Override
+    public ImmutableIntSpan inset(int n) {
+        return super.inset(n).freeze();
+    }
+
+    @Override
+    public ImmutableIntSpan excise(int minLength) {
+        return super.excise(minLength).freeze();
+    }
+
+    @Override
+    public ImmutableIntSpan fill(int maxLength) {
+        return super.fill(maxLength).freeze();
+    }
+
+    //----------------------------------------------------------
+    // Mutators are not supported
+    //----------------------------------------------------------
+
+    @Override
+    public IntSpan clear() {
+        throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+    }
+
+    @Override
+    public IntSpan addPair(int lower, int upper) {
+        throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+    }
+
+    @Override
+    public IntSpan addRange(IntArrayList ranges) {
+        throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+    }
+
+    @Override
+    public IntSpan merge(IntSpan supplied) {
+        throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+    }
+
+    @Override
+    public IntSpan add(int n) {
+        throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+    }
+
+    @Override
+    public IntSpan add(int[] array) {
+        throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+    }
+
+    @Override
+    public IntSpan add(IntSpan supplied) {
+        throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+    }
+
+    @Override
+    public IntSpan add(String runlist) {
+        throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+    }
+
+    @Override
+    public IntSpan invert() {
+        throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+    }
+
+    @Override
+    public IntSpan removePair(int lower, int upper) {
+        throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+    }
+
+    @Override
+    public IntSpan removeRange(IntArrayList ranges) {
+        throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+    }
+
+    @Override
+    public IntSpan subtract(IntSpan supplied) {
+        throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+    }
+
+    @Override
+    public IntSpan remove(int n) {
+        throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+    }
+
+    @Override
+    public IntSpan remove(int[] ints) {
+        throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+    }
+
+    @Override
+    public IntSpan remove(IntSpan supplied) {
+        throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+    }
+
+    @Override
+    public IntSpan remove(String runlist) {
+        throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+    }
+
+    @Override
+    public IntSpan unionInPlace(IntSpan supplied) {
+        throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+    }
+
+    @Override
+    public IntSpan intersectInPlace(IntSpan supplied) {
+        throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+    }
+
+    @Override
+    public IntSpan diffInPlace(IntSpan supplied) {
+        throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+    }
+
+    @Override
+    public IntSpan xorInPlace(IntSpan supplied) {
+        throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+    }
+
+    /**
+     * Guards the methods writing edges, so mutators not overridden above, like add(Reader), and
+     * the destination of unionInto() and the like can't modify this set either.
+     */
+    @Override
+    void checkMutable() throws UnsupportedOperationException {
+        throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+    }
+}
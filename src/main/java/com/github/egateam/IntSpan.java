@@ -17,20 +17,58 @@
 package com.github.egateam;
 
 import com.carrotsearch.hppc.IntArrayList;
-
+import com.carrotsearch.hppc.cursors.IntCursor;
+import com.carrotsearch.hppc.procedures.IntIntProcedure;
+import com.carrotsearch.hppc.procedures.IntProcedure;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 @SuppressWarnings("WeakerAccess")
-public class IntSpan {
+public class IntSpan implements Iterable<IntCursor> {
     private static final String EMPTY_STRING = "-";
 
+    // Runlists are formatted in chunks of this size
+    private static final int FORMAT_CHUNK = 8192;
+    // Longest formatted span, ",-2147483646--2147483646"
+    private static final int MAX_SPAN_CHARS = 24;
+
     // Real Largest int is POS_INF - 1
     private static final int POS_INF = 2147483647 - 1; // INT_MAX - 1
     private static final int NEG_INF = -2147483648 + 1; // INT_MIN + 1
 
+    // Operators of the linear merge engine, see sweep()
+    static final int OP_UNION     = 0;
+    static final int OP_INTERSECT = 1;
+    static final int OP_DIFF      = 2;
+    static final int OP_XOR       = 3;
+
+    // Smaller merges are not worth running in parallel, in total edges
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
     // HPPC IntArrayList (less memory than ArrayList<Integer>)
     private IntArrayList edges = new IntArrayList();
 
+    // Prefix sums of span sizes, ranks[i] is the number of elements before the i-th span.
+    // Built lazily by getRanks() and dropped by every mutation.
+    private int[] ranks;
+
     //----------------------------------------------------------
     // Constructors
     //----------------------------------------------------------
@@ -87,6 +125,15 @@ public class IntSpan {
         add(runlist);
     }
 
+    /**
+     * Constructs a set on the supplied edges, which are used directly without copying.
+     *
+     * @param edges valid edges
+     */
+    IntSpan(IntArrayList edges) {
+        this.edges = edges;
+    }
+
     //----------------------------------------------------------
     // Constants
     //----------------------------------------------------------
@@ -128,7 +175,8 @@ public class IntSpan {
      * @return this set for method chaining
      */
     public IntSpan clear() {
-        edges = new IntArrayList();
+        edges.elementsCount = 0; // keeps the buffer for reuse
+        ranks = null;
 
         return this;
     }
@@ -140,7 +188,7 @@ public class IntSpan {
      *
      * @return the internal used ArrayList representing this set
      */
-    private IntArrayList getEdges() {
+    IntArrayList getEdges() {
         return edges;
     }
 
@@ -173,27 +221,99 @@ public class IntSpan {
             return EMPTY_STRING;
         }
 
-        String runlist = "";
+        // Exact size, no resizing and no intermediate strings
+        char[] runlist = new char[runlistLength()];
+        int    pos     = 0;
+        for ( int i = 0; i < edgeSize(); i += 2 ) {
+            pos = formatSpan(runlist, pos, i);
+        }
 
-        for ( int i = 0; i < spanSize(); i++ ) {
-            int lower = edges.get(i * 2);
-            int upper = edges.get(i * 2 + 1) - 1;
+        return new String(runlist);
+    }
+
+    /**
+     * Appends the runlist of this set to the supplied Appendable, e.g. a StringBuilder or a Writer.
+     *
+     * @param out the supplied Appendable
+     * @return the supplied Appendable
+     * @throws IOException if an I/O error occurs
+     */
+    public Appendable appendTo(Appendable out) throws IOException {
+        if ( isEmpty() ) {
+            out.append(EMPTY_STRING);
+            return out;
+        }
+
+        if ( out instanceof StringBuilder ) {
+            ((StringBuilder) out).ensureCapacity(((StringBuilder) out).length() + runlistLength());
+        }
 
-            String buf = "";
-            if ( i != 0 ) {
-                buf += ",";
+        char[]     chunk   = new char[FORMAT_CHUNK];
+        CharBuffer wrapped = CharBuffer.wrap(chunk);
+        int        pos     = 0;
+        for ( int i = 0; i < edgeSize(); i += 2 ) {
+            if ( pos > FORMAT_CHUNK - MAX_SPAN_CHARS ) {
+                appendChunk(out, chunk, wrapped, pos);
+                pos = 0;
             }
+            pos = formatSpan(chunk, pos, i);
+        }
+        appendChunk(out, chunk, wrapped, pos);
 
-            if ( lower == upper ) {
-                buf += Integer.toString(lower);
-            } else {
-                buf += Integer.toString(lower) + "-" + Integer.toString(upper);
+        return out;
+    }
+
+    /**
+     * Writes the runlist of this set to the supplied stream, in ASCII.
+     *
+     * @param out the supplied stream
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeRunlist(OutputStream out) throws IOException {
+        if ( isEmpty() ) {
+            out.write('-');
+            return;
+        }
+
+        char[] chunk = new char[FORMAT_CHUNK];
+        byte[] bytes = new byte[FORMAT_CHUNK];
+        int    pos   = 0;
+        for ( int i = 0; i < edgeSize(); i += 2 ) {
+            if ( pos > FORMAT_CHUNK - MAX_SPAN_CHARS ) {
+                out.write(toAscii(chunk, bytes, pos), 0, pos);
+                pos = 0;
             }
+            pos = formatSpan(chunk, pos, i);
+        }
+        out.write(toAscii(chunk, bytes, pos), 0, pos);
+    }
 
-            runlist += buf;
+    /**
+     * Writes the runlist of this set to the supplied buffer at its position, in ASCII.
+     *
+     * @param buffer the supplied buffer
+     * @throws BufferOverflowException if there are not enough bytes remaining, nothing is written
+     */
+    public void writeRunlist(ByteBuffer buffer) {
+        if ( isEmpty() ) {
+            buffer.put((byte) '-');
+            return;
         }
 
-        return runlist;
+        int length = runlistLength();
+        if ( buffer.remaining() < length ) throw new BufferOverflowException();
+
+        char[] chunk = new char[Math.min(FORMAT_CHUNK, length)];
+        byte[] bytes = new byte[chunk.length];
+        int    pos   = 0;
+        for ( int i = 0; i < edgeSize(); i += 2 ) {
+            if ( pos > chunk.length - MAX_SPAN_CHARS ) {
+                buffer.put(toAscii(chunk, bytes, pos), 0, pos);
+                pos = 0;
+            }
+            pos = formatSpan(chunk, pos, i);
+        }
+        buffer.put(toAscii(chunk, bytes, pos), 0, pos);
     }
 
     /**
@@ -202,25 +322,19 @@ public class IntSpan {
      * @return an int[] containing all elements of this set in ascending order
      */
     public int[] toArray() {
-        IntArrayList list = new IntArrayList();
-        if ( isEmpty() ) {
-            return list.toArray();
-        }
+        int[] elements = new int[cardinality()];
 
+        int k = 0;
         for ( int i = 0; i < spanSize(); i++ ) {
             int lower = edges.get(i * 2);
             int upper = edges.get(i * 2 + 1) - 1;
 
-            int   spanSize     = upper - lower + 1;
-            int[] spanElements = new int[spanSize];
-            for ( int j = 0; j < spanSize; j++ ) {
-                spanElements[j] = lower + j;
+            for ( int val = lower; val <= upper; val++ ) {
+                elements[k++] = val;
             }
-
-            list.add(spanElements);
         }
 
-        return list.toArray();
+        return elements;
     }
 
     /**
@@ -240,6 +354,86 @@ public class IntSpan {
         return ranges;
     }
 
+    /**
+     * Returns a cursor over spans of this set, which can be split for parallel walking.
+     *
+     * @return a cursor over spans of this set
+     */
+    public IntSpanCursor spanCursor() {
+        return new IntSpanCursor(edges.buffer, 0, spanSize());
+    }
+
+    /**
+     * Returns an iterator over elements of this set in ascending order. Like HPPC containers, the
+     * same cursor is returned by every call of next().
+     *
+     * @return an iterator over elements of this set
+     */
+    @Override
+    public Iterator<IntCursor> iterator() {
+        final int[] buffer = edges.buffer;
+        final int   size   = edgeSize();
+
+        return new Iterator<IntCursor>() {
+            private final IntCursor cursor = new IntCursor();
+
+            private int i     = -2; // index of the lower edge of the current span
+            private int upper = 0;  // upper bound of the current span
+
+            {
+                cursor.index = -1;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return (i >= 0 && cursor.value != upper) || i + 2 < size;
+            }
+
+            @Override
+            public IntCursor next() {
+                if ( i >= 0 && cursor.value != upper ) {
+                    cursor.value++;
+                } else if ( i + 2 < size ) {
+                    i += 2;
+                    cursor.value = buffer[i];
+                    upper = buffer[i + 1] - 1;
+                } else {
+                    throw new NoSuchElementException();
+                }
+                cursor.index++;
+
+                return cursor;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Applies the procedure to lower and upper bounds of each span.
+     *
+     * @param procedure the supplied procedure
+     * @param <T>       type of the procedure
+     * @return the supplied procedure
+     */
+    public <T extends IntIntProcedure> T forEachSpan(T procedure) {
+        return spanCursor().forEachRemaining(procedure);
+    }
+
+    /**
+     * Applies the procedure to each element in ascending order.
+     *
+     * @param procedure the supplied procedure
+     * @param <T>       type of the procedure
+     * @return the supplied procedure
+     */
+    public <T extends IntProcedure> T forEach(T procedure) {
+        return spanCursor().forEachElement(procedure);
+    }
+
     //----------------------------------------------------------
     // Set cardinality
     //----------------------------------------------------------
@@ -250,18 +444,9 @@ public class IntSpan {
      * @return the number of elements in this set
      */
     public int cardinality() {
-        int cardinality = 0;
-        if ( isEmpty() ) {
-            return cardinality;
-        }
+        int[] ranks = getRanks();
 
-        for ( int i = 0; i < spanSize(); i++ ) {
-            int lower = edges.get(i * 2);
-            int upper = edges.get(i * 2 + 1) - 1;
-            cardinality += upper - lower + 1;
-        }
-
-        return cardinality;
+        return ranks[ranks.length - 1];
     }
 
     /**
@@ -333,13 +518,17 @@ public class IntSpan {
 
     /**
      * Returns <tt>true</tt> if this set contains all of the specified numbers.
+     * <p>
+     * Ascending numbers are searched forward from the previous one, see {@link #contains(int[],
+     * boolean[])}.
      *
      * @param ints the specified numbers
      * @return <tt>true</tt> if this set contains all of the specified numbers
      */
     public boolean containsAll(int[] ints) {
-        for ( int i : ints ) {
-            int pos = findPos(i + 1, 0);
+        int pos = 0;
+        for ( int k = 0; k < ints.length; k++ ) {
+            pos = batchPos(ints, k, pos);
             if ( (pos & 1) != 1 ) {
                 return false;
             }
@@ -366,8 +555,9 @@ public class IntSpan {
      * @return <tt>true</tt> if this set contains any of the specified numbers
      */
     public boolean containsAny(int[] ints) {
-        for ( int i : ints ) {
-            int pos = findPos(i + 1, 0);
+        int pos = 0;
+        for ( int k = 0; k < ints.length; k++ ) {
+            pos = batchPos(ints, k, pos);
             if ( (pos & 1) == 1 ) {
                 return true;
             }
@@ -376,6 +566,70 @@ public class IntSpan {
         return false;
     }
 
+    /**
+     * Tests each of the specified numbers.
+     * <p>
+     * While numbers ascend, each search gallops forward from the position of the previous one, so
+     * sorted numbers are tested in about O(q + n) instead of O(q log n). Unsorted numbers are still
+     * answered correctly.
+     *
+     * @param ints the specified numbers, better sorted
+     * @param out  receives <tt>true</tt> at index k if this set contains ints[k]
+     * @throws AssertionError if out is shorter than ints
+     */
+    public void contains(int[] ints, boolean[] out) throws AssertionError {
+        if ( out.length < ints.length ) {
+            throw new AssertionError(String.format("Output too short: %d < %d", out.length, ints.length));
+        }
+
+        int pos = 0;
+        for ( int k = 0; k < ints.length; k++ ) {
+            pos = batchPos(ints, k, pos);
+            out[k] = (pos & 1) == 1;
+        }
+    }
+
+    /**
+     * Tests each of the specified numbers, as in {@link #contains(int[], boolean[])}.
+     *
+     * @param ints the specified numbers, better sorted
+     * @return bit k is set if this set contains ints[k]
+     */
+    public BitSet containsBits(int[] ints) {
+        BitSet bits = new BitSet(ints.length);
+
+        int pos = 0;
+        for ( int k = 0; k < ints.length; k++ ) {
+            pos = batchPos(ints, k, pos);
+            if ( (pos & 1) == 1 ) {
+                bits.set(k);
+            }
+        }
+
+        return bits;
+    }
+
+    /**
+     * Counts the specified numbers contained in this set, as in {@link #contains(int[],
+     * boolean[])}.
+     *
+     * @param ints the specified numbers, better sorted
+     * @return the number of hits
+     */
+    public int countContained(int[] ints) {
+        int count = 0;
+
+        int pos = 0;
+        for ( int k = 0; k < ints.length; k++ ) {
+            pos = batchPos(ints, k, pos);
+            if ( (pos & 1) == 1 ) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
     //----------------------------------------------------------
     // Member operations (mutate original set)
     //----------------------------------------------------------
@@ -405,9 +659,7 @@ public class IntSpan {
             upper = edges.get(upperPos++);
         }
 
-        edges.removeRange(lowerPos, upperPos);
-        edges.insert(lowerPos, lower);
-        edges.insert(lowerPos + 1, upper);
+        spliceEdges(lowerPos, upperPos, lower, upper, 2);
 
         return this;
     }
@@ -423,24 +675,8 @@ public class IntSpan {
     public IntSpan addRange(IntArrayList ranges) throws AssertionError {
         if ( ranges.size() % 2 != 0 ) throw new AssertionError("Number of ranges must be even");
 
-        // When this IntSpan is empty, just convert ranges to edges
-        if ( isEmpty() ) {
-            edges = ranges.clone();
-
-            for ( int i = 0; i < edges.size(); i++ ) {
-                // odd index means upper
-                if ( (i & 1) == 1 ) {
-                    edges.set(i, edges.get(i) + 1);
-                }
-            }
-        } else {
-            edges.ensureCapacity(ranges.size());
-            for ( int i = 0; i < ranges.size() / 2; i++ ) {
-                int lower = ranges.get(i * 2);
-                int upper = ranges.get(i * 2 + 1);
-
-                addPair(lower, upper);
-            }
+        if ( !ranges.isEmpty() ) {
+            addEdges(rangesToEdges(ranges));
         }
 
         return this;
@@ -453,10 +689,7 @@ public class IntSpan {
      * @return this set for method chaining
      */
     public IntSpan merge(IntSpan supplied) {
-        IntArrayList ranges = supplied.ranges();
-        addRange(ranges);
-
-        return this;
+        return assignSweep(this, supplied, OP_UNION);
     }
 
     public IntSpan add(int n) {
@@ -479,10 +712,72 @@ public class IntSpan {
     }
 
     public IntSpan add(String runlist) {
-        // skip empty set
-        if ( !runlist.isEmpty() && !runlist.equals(EMPTY_STRING) ) {
-            addRange(runlistToRanges(runlist));
-        }
+        addEdges(RunlistParser.parse(runlist, 0, runlist.length()));
+
+        return this;
+    }
+
+    public IntSpan add(CharSequence runlist) {
+        addEdges(RunlistParser.parse(runlist, 0, runlist.length()));
+
+        return this;
+    }
+
+    /**
+     * Adds the runlist in a part of the supplied characters to this set.
+     *
+     * @param runlist IntSpan string presentation
+     * @param start   the start index, inclusive
+     * @param end     the end index, exclusive
+     * @return this set for method chaining
+     * @throws AssertionError for malformed runlist
+     */
+    public IntSpan add(CharSequence runlist, int start, int end) throws AssertionError {
+        addEdges(RunlistParser.parse(runlist, start, end));
+
+        return this;
+    }
+
+    /**
+     * Adds the runlist in a part of the supplied ASCII bytes to this set.
+     *
+     * @param bytes  IntSpan string presentation in ASCII
+     * @param offset the start index, inclusive
+     * @param length number of bytes to parse
+     * @return this set for method chaining
+     * @throws AssertionError for malformed runlist
+     */
+    public IntSpan add(byte[] bytes, int offset, int length) throws AssertionError {
+        addEdges(RunlistParser.parse(bytes, offset, length));
+
+        return this;
+    }
+
+    /**
+     * Adds the runlist in the remaining ASCII bytes of the supplied buffer to this set. The buffer
+     * is consumed to its limit.
+     *
+     * @param buffer IntSpan string presentation in ASCII
+     * @return this set for method chaining
+     * @throws AssertionError for malformed runlist
+     */
+    public IntSpan add(ByteBuffer buffer) throws AssertionError {
+        addEdges(RunlistParser.parse(buffer));
+
+        return this;
+    }
+
+    /**
+     * Adds the runlist read from the supplied reader to this set. The reader is read to its end but
+     * not closed.
+     *
+     * @param reader IntSpan string presentation
+     * @return this set for method chaining
+     * @throws IOException    if an I/O error occurs
+     * @throws AssertionError for malformed runlist
+     */
+    public IntSpan add(Reader reader) throws IOException, AssertionError {
+        addEdges(RunlistParser.parse(reader));
 
         return this;
     }
@@ -505,20 +800,30 @@ public class IntSpan {
             edges.add(NEG_INF, POS_INF);
         } else {
             // Either add or remove infinity from each end. The net effect is always an even number
-            // of additions and deletions
-
-            if ( isNegInf() ) {
-                edges.remove(0); // shift
+            // of additions and deletions. Edges are moved once, by at most one position.
+            int     size   = edgeSize();
+            boolean negInf = isNegInf();
+            boolean posInf = isPosInf();
+
+            edges.ensureCapacity(size + 2);
+            int[] buffer = edges.buffer;
+            if ( negInf ) {
+                System.arraycopy(buffer, 1, buffer, 0, size - 1); // shift
+                size--;
             } else {
-                edges.insert(0, NEG_INF); // unshift
+                System.arraycopy(buffer, 0, buffer, 1, size); // unshift
+                buffer[0] = NEG_INF;
+                size++;
             }
 
-            if ( isPosInf() ) {
-                edges.remove(edges.size() - 1); // pop
+            if ( posInf ) {
+                size--; // pop
             } else {
-                edges.add(POS_INF); // push
+                buffer[size++] = POS_INF; // push
             }
+            edges.elementsCount = size;
         }
+        ranks = null;
 
         return this;
     }
@@ -530,10 +835,24 @@ public class IntSpan {
      * @param upper upper boundary ( upper must be larger than or equals to lower)
      * @return this set for method chaining
      */
-    public IntSpan removePair(int lower, int upper) {
-        invert();
-        addPair(lower, upper);
-        invert();
+    public IntSpan removePair(int lower, int upper) throws AssertionError {
+        upper++;
+
+        if ( lower > upper )
+            throw new AssertionError(String.format("Bad order: %s,%s", Integer.toString(lower), Integer.toString(upper)));
+
+        // edges in [lower, upper] are removed, and bounds inside spans become new edges. Valid
+        // edges are less than Integer.MAX_VALUE, so upper + 1 can't overflow when it matters.
+        int lowerPos = findPos(lower, 0);
+        int upperPos = upper == Integer.MAX_VALUE ? edgeSize() : findPos(upper + 1, lowerPos);
+
+        if ( (lowerPos & 1) == 1 ) {
+            spliceEdges(lowerPos, upperPos, lower, upper, (upperPos & 1) == 1 ? 2 : 1);
+        } else if ( (upperPos & 1) == 1 ) {
+            spliceEdges(lowerPos, upperPos, upper, 0, 1);
+        } else {
+            spliceEdges(lowerPos, upperPos, 0, 0, 0);
+        }
 
         return this;
     }
@@ -549,9 +868,9 @@ public class IntSpan {
     public IntSpan removeRange(IntArrayList ranges) throws AssertionError {
         if ( ranges.size() % 2 != 0 ) throw new AssertionError("Number of ranges must be even");
 
-        invert();
-        addRange(ranges);
-        invert();
+        if ( !ranges.isEmpty() ) {
+            removeEdges(rangesToEdges(ranges));
+        }
 
         return this;
     }
@@ -563,10 +882,7 @@ public class IntSpan {
      * @return this set for method chaining
      */
     public IntSpan subtract(IntSpan supplied) {
-        IntArrayList ranges = supplied.ranges();
-        removeRange(ranges);
-
-        return this;
+        return assignSweep(this, supplied, OP_DIFF);
     }
 
     public IntSpan remove(int n) {
@@ -589,10 +905,7 @@ public class IntSpan {
     }
 
     public IntSpan remove(String runlist) {
-        // empty set
-        if ( !runlist.isEmpty() && !runlist.equals(EMPTY_STRING) ) {
-            removeRange(runlistToRanges(runlist));
-        }
+        removeEdges(RunlistParser.parse(runlist, 0, runlist.length()));
 
         return this;
     }
@@ -615,6 +928,15 @@ public class IntSpan {
         return newSet;
     }
 
+    /**
+     * Returns an immutable copy of this set, backed by an exact-size array.
+     *
+     * @return an immutable copy of this set
+     */
+    public ImmutableIntSpan freeze() {
+        return new ImmutableIntSpan(this);
+    }
+
     /**
      * Returns a new set that is the union (并集) of this set and the supplied set.
      *
@@ -622,8 +944,9 @@ public class IntSpan {
      * @return the union of this set and the supplied set
      */
     public IntSpan union(IntSpan supplied) {
-        IntSpan newSet = copy();
-        newSet.merge(supplied);
+        IntSpan newSet = new IntSpan();
+        newSet.edges = sweep(edges, supplied.getEdges(), OP_UNION);
+
         return newSet;
     }
 
@@ -633,7 +956,7 @@ public class IntSpan {
      * @return the absolute complement of this set
      */
     public IntSpan complement() {
-        IntSpan newSet = copy();
+        IntSpan newSet = new IntSpan(this);
         newSet.invert();
 
         return newSet;
@@ -649,14 +972,10 @@ public class IntSpan {
      * @return the relative complement of the supplied set in this set
      */
     public IntSpan diff(IntSpan supplied) {
-        if ( isEmpty() ) {
-            return new IntSpan();
-        } else {
-            IntSpan newSet = copy();
-            newSet.subtract(supplied);
+        IntSpan newSet = new IntSpan();
+        newSet.edges = sweep(edges, supplied.getEdges(), OP_DIFF);
 
-            return newSet;
-        }
+        return newSet;
     }
 
     /**
@@ -666,29 +985,8 @@ public class IntSpan {
      * @return the intersection of this set and the supplied set
      */
     public IntSpan intersect(IntSpan supplied) {
-        if ( this.isEmpty() || supplied.isEmpty() ) {
-            return new IntSpan();
-        }
-
-        // when supplied IntSpan larger than this, swap
-        // no good effects
-//        if ( this.edgeSize() > supplied.edgeSize() ) {
-//            IntSpan newSet = complement();
-//            newSet.merge(supplied.complement());
-//            newSet.invert();
-//
-//            return newSet;
-//        } else {
-//            IntSpan newSet = supplied.complement();
-//            newSet.merge(this.complement());
-//            newSet.invert();
-//
-//            return newSet;
-//        }
-
-        IntSpan newSet = complement();
-        newSet.merge(supplied.complement());
-        newSet.invert();
+        IntSpan newSet = new IntSpan();
+        newSet.edges = sweep(edges, supplied.getEdges(), OP_INTERSECT);
 
         return newSet;
     }
@@ -702,59 +1000,276 @@ public class IntSpan {
      * but not both
      */
     public IntSpan xor(IntSpan supplied) {
-        IntSpan newSet = union(supplied);
-        newSet.subtract(intersect(supplied));
+        IntSpan newSet = new IntSpan();
+        newSet.edges = sweep(edges, supplied.getEdges(), OP_XOR);
 
         return newSet;
     }
 
-    //----------------------------------------------------------
-    // Set relations
-    //----------------------------------------------------------
-
     /**
-     * Returns <tt>true</tt> if this set and the supplied set contain the same elements.
+     * Returns a new set that is the union of this set and the supplied set, merged in parallel on
+     * the supplied pool for large sets.
      *
-     * @param supplied set to be compared
-     * @return <tt>true</tt> if this set and the supplied set contain the same elements
+     * @param supplied set to be operated with this set
+     * @param pool     the pool running partitions
+     * @return the union of this set and the supplied set
      */
-    public boolean equals(IntSpan supplied) {
-        IntArrayList edges_a = this.getEdges();
-        IntArrayList edges_b = supplied.getEdges();
+    public IntSpan union(IntSpan supplied, ForkJoinPool pool) {
+        IntSpan newSet = new IntSpan();
+        newSet.edges = parallelSweep(edges, supplied.getEdges(), OP_UNION, pool);
 
-        if ( edges_a.size() != edges_b.size() ) {
-            return false;
-        }
+        return newSet;
+    }
 
-        for ( int i = 0; i < edges_a.size(); i++ ) {
-            int a = edges_a.get(i);
-            int b = edges_b.get(i);
-            if ( a != b ) {
-                return false;
-            }
-        }
+    /**
+     * Parallel version of {@link #diff(IntSpan)}, see {@link #union(IntSpan, ForkJoinPool)}.
+     *
+     * @param supplied set to be operated with this set
+     * @param pool     the pool running partitions
+     * @return the relative complement of the supplied set in this set
+     */
+    public IntSpan diff(IntSpan supplied, ForkJoinPool pool) {
+        IntSpan newSet = new IntSpan();
+        newSet.edges = parallelSweep(edges, supplied.getEdges(), OP_DIFF, pool);
 
-        return true;
+        return newSet;
     }
 
     /**
-     * Returns <tt>true</tt> if this set is a subset of the supplied set.
+     * Parallel version of {@link #intersect(IntSpan)}, see {@link #union(IntSpan, ForkJoinPool)}.
      *
-     * @param supplied set to be compared
-     * @return <tt>true</tt> if this set is a subset of the supplied set
+     * @param supplied set to be operated with this set
+     * @param pool     the pool running partitions
+     * @return the intersection of this set and the supplied set
      */
-    public boolean subset(IntSpan supplied) {
-        return this.diff(supplied).isEmpty();
+    public IntSpan intersect(IntSpan supplied, ForkJoinPool pool) {
+        IntSpan newSet = new IntSpan();
+        newSet.edges = parallelSweep(edges, supplied.getEdges(), OP_INTERSECT, pool);
+
+        return newSet;
     }
 
     /**
-     * Returns <tt>true</tt> if this set is a superset of the supplied set.
+     * Parallel version of {@link #xor(IntSpan)}, see {@link #union(IntSpan, ForkJoinPool)}.
      *
-     * @param supplied set to be compared
-     * @return <tt>true</tt> if this set is a superset of the supplied set
+     * @param supplied set to be operated with this set
+     * @param pool     the pool running partitions
+     * @return the symmetric difference of this set and the supplied set
      */
-    public boolean superset(IntSpan supplied) {
-        return supplied.diff(this).isEmpty();
+    public IntSpan xor(IntSpan supplied, ForkJoinPool pool) {
+        IntSpan newSet = new IntSpan();
+        newSet.edges = parallelSweep(edges, supplied.getEdges(), OP_XOR, pool);
+
+        return newSet;
+    }
+
+    //----------------------------------------------------------
+    // Set operations in place (reuse the buffer of this set or a destination set)
+    //----------------------------------------------------------
+
+    /**
+     * Adds all elements of the supplied set to this set, the same as {@link #merge(IntSpan)}.
+     * <p>
+     * The buffer of this set is reused, it only grows when the result doesn't fit.
+     *
+     * @param supplied set to be operated with this set
+     * @return this set for method chaining
+     */
+    public IntSpan unionInPlace(IntSpan supplied) {
+        return assignSweep(this, supplied, OP_UNION);
+    }
+
+    /**
+     * Keeps only elements also in the supplied set, reusing the buffer of this set.
+     *
+     * @param supplied set to be operated with this set
+     * @return this set for method chaining
+     */
+    public IntSpan intersectInPlace(IntSpan supplied) {
+        return assignSweep(this, supplied, OP_INTERSECT);
+    }
+
+    /**
+     * Removes elements in the supplied set, the same as {@link #subtract(IntSpan)}.
+     *
+     * @param supplied set to be operated with this set
+     * @return this set for method chaining
+     */
+    public IntSpan diffInPlace(IntSpan supplied) {
+        return assignSweep(this, supplied, OP_DIFF);
+    }
+
+    /**
+     * Keeps elements in exactly one of this set and the supplied set, reusing the buffer of this
+     * set.
+     *
+     * @param supplied set to be operated with this set
+     * @return this set for method chaining
+     */
+    public IntSpan xorInPlace(IntSpan supplied) {
+        return assignSweep(this, supplied, OP_XOR);
+    }
+
+    /**
+     * Writes the union of this set and the supplied set into dest, replacing its elements and
+     * reusing its buffer. In a loop, one dest set makes the operation free of allocation.
+     * <p>
+     * dest may be this set or the supplied set.
+     *
+     * @param supplied set to be operated with this set
+     * @param dest     the destination set
+     * @return dest
+     */
+    public IntSpan unionInto(IntSpan supplied, IntSpan dest) {
+        return dest.assignSweep(this, supplied, OP_UNION);
+    }
+
+    /**
+     * Writes the intersection of this set and the supplied set into dest, see {@link
+     * #unionInto(IntSpan, IntSpan)}.
+     *
+     * @param supplied set to be operated with this set
+     * @param dest     the destination set
+     * @return dest
+     */
+    public IntSpan intersectInto(IntSpan supplied, IntSpan dest) {
+        return dest.assignSweep(this, supplied, OP_INTERSECT);
+    }
+
+    /**
+     * Writes elements of this set but not in the supplied set into dest, see {@link
+     * #unionInto(IntSpan, IntSpan)}.
+     *
+     * @param supplied set to be operated with this set
+     * @param dest     the destination set
+     * @return dest
+     */
+    public IntSpan diffInto(IntSpan supplied, IntSpan dest) {
+        return dest.assignSweep(this, supplied, OP_DIFF);
+    }
+
+    /**
+     * Writes elements in exactly one of this set and the supplied set into dest, see {@link
+     * #unionInto(IntSpan, IntSpan)}.
+     *
+     * @param supplied set to be operated with this set
+     * @param dest     the destination set
+     * @return dest
+     */
+    public IntSpan xorInto(IntSpan supplied, IntSpan dest) {
+        return dest.assignSweep(this, supplied, OP_XOR);
+    }
+
+    //----------------------------------------------------------
+    // Set relations
+    //----------------------------------------------------------
+
+    /**
+     * Returns <tt>true</tt> if this set and the supplied set contain the same elements.
+     *
+     * @param supplied set to be compared
+     * @return <tt>true</tt> if this set and the supplied set contain the same elements
+     */
+    public boolean equals(IntSpan supplied) {
+        IntArrayList edges_a = this.getEdges();
+        IntArrayList edges_b = supplied.getEdges();
+
+        if ( edges_a.size() != edges_b.size() ) {
+            return false;
+        }
+
+        for ( int i = 0; i < edges_a.size(); i++ ) {
+            int a = edges_a.get(i);
+            int b = edges_b.get(i);
+            if ( a != b ) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof IntSpan && equals((IntSpan) obj);
+    }
+
+    @Override
+    public int hashCode() {
+        int[] buffer = edges.buffer;
+        int   hash   = 1;
+
+        for ( int i = 0; i < edgeSize(); i++ ) {
+            hash = 31 * hash + buffer[i];
+        }
+
+        return hash;
+    }
+
+    /**
+     * Returns <tt>true</tt> if this set is a subset of the supplied set.
+     *
+     * @param supplied set to be compared
+     * @return <tt>true</tt> if this set is a subset of the supplied set
+     */
+    public boolean subset(IntSpan supplied) {
+        int[] a     = edges.buffer;
+        int   sizeA = edgeSize();
+        int[] b     = supplied.getEdges().buffer;
+        int   sizeB = supplied.edgeSize();
+
+        int pos = 0;
+        for ( int i = 0; i < sizeA; i += 2 ) {
+            // the span of supplied containing lower must also reach upper
+            pos = findPos(b, sizeB, a[i] + 1, pos);
+            if ( (pos & 1) != 1 || a[i + 1] > b[pos] ) {
+                return false;
+            }
+            pos--;
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns <tt>true</tt> if this set is a superset of the supplied set.
+     *
+     * @param supplied set to be compared
+     * @return <tt>true</tt> if this set is a superset of the supplied set
+     */
+    public boolean superset(IntSpan supplied) {
+        return supplied.subset(this);
+    }
+
+    /**
+     * Returns <tt>true</tt> if this set and the supplied set have at least one element in common.
+     *
+     * @param supplied set to be compared
+     * @return <tt>true</tt> if this set and the supplied set have at least one element in common
+     */
+    public boolean overlaps(IntSpan supplied) {
+        return overlaps(edges, supplied.getEdges(), 0);
+    }
+
+    /**
+     * Returns <tt>true</tt> if this set and the supplied set have no elements in common.
+     *
+     * @param supplied set to be compared
+     * @return <tt>true</tt> if this set and the supplied set have no elements in common
+     */
+    public boolean disjoint(IntSpan supplied) {
+        return !overlaps(supplied);
+    }
+
+    /**
+     * Returns <tt>true</tt> if this set and the supplied set overlap or are adjacent, that is, an
+     * element of one set is equal to or next to an element of the other set.
+     *
+     * @param supplied set to be compared
+     * @return <tt>true</tt> if this set and the supplied set overlap or are adjacent
+     */
+    public boolean touches(IntSpan supplied) {
+        return overlaps(edges, supplied.getEdges(), 1);
     }
 
     //----------------------------------------------------------
@@ -803,51 +1318,13 @@ public class IntSpan {
         if ( Math.abs(index) < 1 ) throw new AssertionError("Index start from 1");
         if ( Math.abs(index) > cardinality() ) throw new AssertionError("Out of max index");
 
-        if ( index > 0 ) {
-            return atPos(index);
-        } else {
-            return atNeg(-index);
-        }
-    }
-
-    private int atPos(int index) {
-        int element               = min();
-        int countOfElementsBefore = 0;
-
-        for ( int i = 0; i < spanSize(); i++ ) {
-            int lower        = edges.get(i * 2);
-            int upper        = edges.get(i * 2 + 1) - 1;
-            int thisSpanSize = upper - lower + 1;
-
-            if ( index > countOfElementsBefore + thisSpanSize ) {
-                countOfElementsBefore += thisSpanSize;
-            } else {
-                element = index - countOfElementsBefore - 1 + lower;
-                break;
-            }
+        if ( index < 0 ) {
+            index = cardinality() + index + 1;
         }
 
-        return element;
-    }
-
-    private int atNeg(int index) {
-        int element              = max();
-        int countOfElementsAfter = 0;
-
-        for ( int i = spanSize() - 1; i >= 0; i-- ) {
-            int lower        = edges.get(i * 2);
-            int upper        = edges.get(i * 2 + 1) - 1;
-            int thisSpanSize = upper - lower + 1;
-
-            if ( index > countOfElementsAfter + thisSpanSize ) {
-                countOfElementsAfter += thisSpanSize;
-            } else {
-                element = upper - (index - countOfElementsAfter) + 1;
-                break;
-            }
-        }
+        int i = spanOfIndex(index);
 
-        return element;
+        return edges.get(i * 2) + index - ranks[i] - 1;
     }
 
     /**
@@ -859,27 +1336,48 @@ public class IntSpan {
      */
     public int index(int element) throws AssertionError {
         if ( isEmpty() ) throw new AssertionError("Indexing on an empty set");
-        if ( !contains(element) ) throw new AssertionError("Element doesn't exist");
 
-        int index                 = -1; // not valid
-        int countOfElementsBefore = 0;
+        int pos = findPos(element + 1, 0);
+        if ( (pos & 1) != 1 ) throw new AssertionError("Element doesn't exist");
 
-        for ( int i = 0; i < spanSize(); i++ ) {
-            int lower        = edges.get(i * 2);
-            int upper        = edges.get(i * 2 + 1) - 1;
-            int thisSpanSize = upper - lower + 1;
+        int i = pos / 2;
 
-            if ( element >= lower && element <= upper ) {
-                index = element - lower + 1 + countOfElementsBefore;
-            } else {
-                countOfElementsBefore += thisSpanSize;
-            }
+        return getRanks()[i] + element - edges.get(i * 2) + 1;
+    }
+
+    /**
+     * Returns a new set containing the (from)th to the (to)th elements of this set, index start
+     * from "1".
+     * <p>
+     * Indexes larger than cardinality() are clipped to it.
+     *
+     * @param from index of the first element
+     * @param to   index of the last element
+     * @return a new set containing elements between the two indexes
+     * @throws AssertionError for invalid index
+     */
+    public IntSpan slice(int from, int to) throws AssertionError {
+        if ( from < 1 ) throw new AssertionError("Index start from 1");
+
+        IntSpan newSet = new IntSpan();
+        if ( from > to || from > cardinality() ) {
+            return newSet;
+        }
+        if ( to > cardinality() ) {
+            to = cardinality();
         }
 
-        return index;
-    }
+        int first = spanOfIndex(from);
+        int last  = spanOfIndex(to);
+
+        IntArrayList newEdges = new IntArrayList((last - first + 1) * 2);
+        newEdges.add(edges.buffer, first * 2, (last - first + 1) * 2);
+        newEdges.set(0, edges.get(first * 2) + from - ranks[first] - 1);
+        newEdges.set(newEdges.size() - 1, edges.get(last * 2) + to - ranks[last]);
+        newSet.edges = newEdges;
 
-    // TODO: slice()
+        return newSet;
+    }
 
     //----------------------------------------------------------
     // Spans operations
@@ -1008,139 +1506,1104 @@ public class IntSpan {
      * @return a new set
      */
     public IntSpan fill(int maxLength) {
-        IntSpan newSet = copy();
+        IntSpan newSet = new IntSpan(this);
 
         IntSpan      holesSet   = holes();
         IntArrayList holesEdges = holesSet.getEdges();
 
+        // short holes are merged at once, adding them one by one shifts edges every time
+        IntArrayList filled = new IntArrayList(holesEdges.size());
         for ( int i = 0; i < holesSet.spanSize(); i++ ) {
             int lower        = holesEdges.get(i * 2);
             int upper        = holesEdges.get(i * 2 + 1) - 1;
             int thisSpanSize = upper - lower + 1;
 
             if ( thisSpanSize <= maxLength ) {
-                newSet.addPair(lower, upper);
+                filled.add(lower, upper + 1);
             }
         }
+        newSet.addEdges(filled);
 
         return newSet;
     }
 
     //----------------------------------------------------------
-    // TODO: Inter-set operations
+    // Binary serialization
     //----------------------------------------------------------
 
-    //----------------------------------------------------------
-    // TODO: Islands
-    //----------------------------------------------------------
+    /**
+     * Returns the number of bytes written by writeTo().
+     *
+     * @return the number of bytes in the binary format
+     */
+    public int serializedSize() {
+        return IntSpanCodec.encodedSize(edges, cardinality());
+    }
 
-    //----------------------------------------------------------
-    // Private methods
-    //----------------------------------------------------------
+    /**
+     * Writes this set to the supplied output in the binary format of {@link IntSpanCodec}.
+     *
+     * @param out the supplied output
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.write(IntSpanCodec.encode(edges, cardinality()));
+    }
 
-    private static IntArrayList listToRanges(int[] ints) {
-        Arrays.sort(ints);
+    /**
+     * Writes this set to the supplied buffer at its position in the binary format of {@link
+     * IntSpanCodec}.
+     *
+     * @param buffer the supplied buffer
+     * @throws BufferOverflowException if there are not enough bytes remaining
+     */
+    public void writeTo(ByteBuffer buffer) {
+        buffer.put(IntSpanCodec.encode(edges, cardinality()));
+    }
 
-        IntArrayList ranges = new IntArrayList();
+    /**
+     * Reads a set written by writeTo() from the supplied input.
+     *
+     * @param in the supplied input
+     * @return a new set
+     * @throws IOException    if an I/O error occurs
+     * @throws AssertionError for unsupported version or corrupted data
+     */
+    public static IntSpan readFrom(DataInput in) throws IOException, AssertionError {
+        return new IntSpan(IntSpanCodec.decode(in));
+    }
 
-        int len = ints.length;
-        int pos = 0;
+    /**
+     * Reads a set written by writeTo() from the supplied buffer at its position. The buffer is
+     * advanced past the set.
+     *
+     * @param buffer the supplied buffer
+     * @return a new set
+     * @throws AssertionError for unsupported version or corrupted data
+     */
+    public static IntSpan readFrom(ByteBuffer buffer) throws AssertionError {
+        return new IntSpan(IntSpanCodec.decode(buffer));
+    }
 
-        while ( pos < ints.length ) {
-            int end = pos + 1;
-            while ( (end < len) && (ints[end] <= ints[end - 1] + 1) ) {
-                end++;
-            }
-            ranges.add(ints[pos], ints[end - 1]);
-            pos = end;
-        }
+    //----------------------------------------------------------
+    // Inter-set operations
+    //----------------------------------------------------------
 
-        return ranges;
+    /**
+     * Returns a new set that is the union of all supplied sets, in one sweep over all of them.
+     *
+     * @param sets the supplied sets
+     * @return the union of all supplied sets, empty if there is no set
+     */
+    public static IntSpan unionAll(Collection<? extends IntSpan> sets) {
+        return atLeast(1, sets);
     }
 
-    private static IntArrayList runlistToRanges(String s) {
-        IntArrayList ranges = new IntArrayList();
-
-        int radix = 10;
-        int idx   = 0; // index in runlist
-        int len   = s.length();
+    /**
+     * Returns a new set that is the intersection of all supplied sets, in one sweep over all of them.
+     *
+     * @param sets the supplied sets
+     * @return the intersection of all supplied sets, empty if there is no set
+     */
+    public static IntSpan intersectAll(Collection<? extends IntSpan> sets) {
+        if ( sets.isEmpty() ) {
+            return new IntSpan();
+        }
 
-        boolean lowerNeg = false;
-        boolean upperNeg = false;
-        boolean inUpper  = false;
+        return atLeast(sets.size(), sets);
+    }
 
-        while ( idx < len ) {
-            int i = 0; // index in one run
-            if ( s.charAt(idx) == '-' ) {
-                lowerNeg = true;
-                i++;
-            }
+    /**
+     * Returns a new set of elements contained in at least k of the supplied sets.
+     *
+     * @param k    the least number of sets
+     * @param sets the supplied sets
+     * @return elements contained in at least k sets
+     * @throws AssertionError if k is less than 1
+     */
+    public static IntSpan atLeast(int k, Collection<? extends IntSpan> sets) throws AssertionError {
+        if ( k < 1 ) {
+            throw new AssertionError(String.format("Bad number of sets: %d", k));
+        }
 
-            // Integer.parseInt() say this:
-            // Accumulating negatively avoids surprises near MAX_VALUE
-            int lower = 0, upper = 0;
-            for ( ; idx + i < len; i++ ) {
-                char ch = s.charAt(idx + i);
-                if ( ch >= '0' && ch <= '9' ) {
-                    if ( !inUpper ) {
-
-                        lower *= radix;
-                        lower -= Character.digit(ch, radix);
-                    } else {
-                        upper *= radix;
-                        upper -= Character.digit(ch, radix);
-                    }
-                } else if ( ch == '-' && !inUpper ) {
-                    inUpper = true;
-                    if ( s.charAt(idx + i + 1) == '-' ) {
-                        upperNeg = true;
-                    }
-                } else if ( ch == ',' ) {
-                    i++;
-                    break; // end of run
-                }
-            }
+        List<IntArrayList> edgeLists = new ArrayList<>(sets.size());
+        int                total     = 0;
+        for ( IntSpan set : sets ) {
+            edgeLists.add(set.getEdges());
+            total += set.edgeSize();
+        }
+        if ( k > edgeLists.size() ) {
+            return new IntSpan();
+        }
 
-            if ( !inUpper ) {
-                ranges.add(lowerNeg ? lower : -lower); // add lower
-                ranges.add(lowerNeg ? lower : -lower); // add lower again
-            } else {
-                ranges.add(lowerNeg ? lower : -lower); // add lower
-                ranges.add(upperNeg ? upper : -upper); // add upper
+        IntArrayList result = new IntArrayList(k == 1 ? total : 0);
+        EdgeSweep    sweep  = new EdgeSweep(edgeLists);
+        boolean      inR    = false;
+        while ( sweep.next() ) {
+            boolean inNew = sweep.depth() >= k;
+            if ( inNew != inR ) {
+                result.add(sweep.position());
+                inR = inNew;
             }
-
-            // reset boolean flags
-            lowerNeg = false;
-            upperNeg = false;
-            inUpper = false;
-
-            // start next run
-            idx += i;
         }
 
-        return ranges;
+        return new IntSpan(result);
     }
 
     /**
-     * Return the index of the first element >= the supplied value.
-     * <p>
-     * If the supplied value is larger than any element in the list the returned value will be equal
-     * to the size of the list.
-     * <p>
-     * If (pos & 1) == 1, i.e. pos is odd number, val is in the set
+     * Returns the coverage depth of the supplied sets, see {@link IntSpanCoverage}.
+     *
+     * @param sets the supplied sets
+     * @return the coverage depth
+     */
+    public static IntSpanCoverage coverage(Collection<? extends IntSpan> sets) {
+        return new IntSpanCoverage(sets);
+    }
+
+    //----------------------------------------------------------
+    // Islands
+    //----------------------------------------------------------
+
+    /**
+     * Maps an island to a set, see {@link #mapIslands(IslandMapper)}.
+     */
+    public interface IslandMapper {
+        /**
+         * @param lower lower bound of the island
+         * @param upper upper bound of the island
+         * @return a set, or <tt>null</tt> for nothing
+         */
+        IntSpan map(int lower, int upper);
+    }
+
+    /**
+     * Returns the number of islands, i.e. spans.
+     *
+     * @return the number of islands
+     */
+    public int numIslands() {
+        return spanSize();
+    }
+
+    /**
+     * Returns a new set of the island containing the supplied integer, in O(log n).
+     *
+     * @param val the supplied integer
+     * @return the island containing val, or an empty set
+     */
+    public IntSpan findIslands(int val) {
+        int i = islandOf(val);
+
+        return i < 0 ? new IntSpan() : islandSet(i);
+    }
+
+    /**
+     * Returns a new set of all islands overlapping the supplied set, in O(m log n).
+     *
+     * @param supplied the supplied set
+     * @return islands overlapping the supplied set
+     */
+    public IntSpan findIslands(IntSpan supplied) {
+        IntArrayList suppliedEdges = supplied.getEdges();
+        IntArrayList islands       = new IntArrayList();
+
+        int pos  = 0;
+        int last = -1; // index of the last island added
+        for ( int j = 0; j < suppliedEdges.size(); j += 2 ) {
+            int lower = suppliedEdges.get(j);
+            int upper = suppliedEdges.get(j + 1) - 1;
+
+            // islands with edges in (lower, upper + 1] overlap, and the one containing lower
+            pos = findPos(lower + 1, pos);
+            int first = (pos & 1) == 1 ? (pos - 1) / 2 : pos / 2;
+            int end   = findPos(upper + 1, pos);
+            int stop  = (end & 1) == 1 ? (end - 1) / 2 : end / 2 - 1;
+
+            for ( int i = Math.max(first, last + 1); i <= stop; i++ ) {
+                islands.add(edges.get(i * 2), edges.get(i * 2 + 1));
+                last = i;
+            }
+        }
+
+        return new IntSpan(islands);
+    }
+
+    /**
+     * Returns a new set of the island(s) nearest to, but not containing, the supplied integer, in
+     * O(log n). If val lies exactly between two islands, both of them are returned.
+     *
+     * @param val the supplied integer
+     * @return the nearest island(s), or an empty set
+     */
+    public IntSpan nearestIsland(int val) {
+        int pos = findPos(val + 1, 0);
+
+        // islands just before and after val, skipping the one containing val
+        int left  = (pos & 1) == 1 ? (pos - 1) / 2 - 1 : pos / 2 - 1;
+        int right = (pos & 1) == 1 ? (pos - 1) / 2 + 1 : pos / 2;
+
+        return nearestOf(left, (long) val, right, (long) val);
+    }
+
+    /**
+     * Returns a new set of the island(s) nearest to, but not overlapping, spans of the supplied set,
+     * in O(m log n). Islands at the same shortest distance are all returned.
+     *
+     * @param supplied the supplied set
+     * @return the nearest island(s), or an empty set
+     */
+    public IntSpan nearestIsland(IntSpan supplied) {
+        IntArrayList suppliedEdges = supplied.getEdges();
+
+        long         minDistance = Long.MAX_VALUE;
+        IntArrayList nearest     = new IntArrayList(); // indexes of islands
+
+        int pos = 0;
+        for ( int j = 0; j < suppliedEdges.size(); j += 2 ) {
+            int lower = suppliedEdges.get(j);
+            int upper = suppliedEdges.get(j + 1) - 1;
+
+            // the last island ending before lower, and the first one starting after upper
+            pos = findPos(lower + 1, pos);
+            int left  = pos / 2 - 1;
+            int end   = findPos(upper + 1, pos);
+            int right = (end & 1) == 1 ? (end - 1) / 2 + 1 : end / 2;
+
+            if ( left >= 0 ) {
+                long distance = (long) lower - (edges.get(left * 2 + 1) - 1);
+                if ( distance < minDistance ) {
+                    minDistance = distance;
+                    nearest.clear();
+                }
+                if ( distance == minDistance ) nearest.add(left);
+            }
+            if ( right < spanSize() ) {
+                long distance = (long) edges.get(right * 2) - upper;
+                if ( distance < minDistance ) {
+                    minDistance = distance;
+                    nearest.clear();
+                }
+                if ( distance == minDistance ) nearest.add(right);
+            }
+        }
+
+        IntSpan islands = new IntSpan();
+        for ( int k = 0; k < nearest.size(); k++ ) {
+            int i = nearest.get(k);
+            islands.addPair(edges.get(i * 2), edges.get(i * 2 + 1) - 1);
+        }
+
+        return islands;
+    }
+
+    /**
+     * Returns the (index)th island, index start from "1".
+     * <p>
+     * Negative indices count backwards from the end of the set.
+     *
+     * @param index index of islands
+     * @return a new set of the island
+     * @throws AssertionError for invalid index
+     */
+    public IntSpan atIsland(int index) throws AssertionError {
+        if ( Math.abs(index) < 1 ) throw new AssertionError("Index start from 1");
+        if ( Math.abs(index) > spanSize() ) throw new AssertionError("Out of max index");
+
+        return islandSet(index < 0 ? spanSize() + index : index - 1);
+    }
+
+    /**
+     * Returns a new set that is the union of the supplied mapper applied to each island.
+     *
+     * @param mapper the supplied mapper
+     * @return the union of mapped sets
+     */
+    public IntSpan mapIslands(IslandMapper mapper) {
+        List<IntSpan> mapped = new ArrayList<>(spanSize());
+        for ( int i = 0; i < spanSize(); i++ ) {
+            IntSpan set = mapper.map(edges.get(i * 2), edges.get(i * 2 + 1) - 1);
+            if ( set != null ) {
+                mapped.add(set);
+            }
+        }
+
+        return unionAll(mapped);
+    }
+
+    /**
+     * Returns the index of the island containing the supplied integer, in O(log n).
+     *
+     * @param val the supplied integer
+     * @return index of the island from "0", or -1
+     */
+    public int islandOf(int val) {
+        int pos = findPos(val + 1, 0);
+
+        return (pos & 1) == 1 ? (pos - 1) / 2 : -1;
+    }
+
+    /**
+     * Returns indexes of islands containing the supplied integers. With ascending integers, each
+     * search starts from the previous position.
+     *
+     * @param vals the supplied integers, better sorted
+     * @return indexes of islands from "0", or -1
+     */
+    public int[] islandsOf(int[] vals) {
+        int[] indexes = new int[vals.length];
+
+        int pos = 0;
+        for ( int k = 0; k < vals.length; k++ ) {
+            if ( k > 0 && vals[k] < vals[k - 1] ) {
+                pos = 0;
+            }
+            pos = findPos(vals[k] + 1, pos);
+            indexes[k] = (pos & 1) == 1 ? (pos - 1) / 2 : -1;
+        }
+
+        return indexes;
+    }
+
+    /**
+     * Returns the index of the island containing the supplied integer, or else the nearest island,
+     * in O(log n). Ties go to the lower island.
+     *
+     * @param val the supplied integer
+     * @return index of the island from "0", or -1 for an empty set
+     */
+    public int nearestIslandIndex(int val) {
+        return nearestIslandIndex(val, findPos(val + 1, 0));
+    }
+
+    /**
+     * Returns indexes of islands containing, or else nearest to, the supplied integers. With
+     * ascending integers, each search starts from the previous position.
+     *
+     * @param vals the supplied integers, better sorted
+     * @return indexes of islands from "0", or -1 for an empty set
+     */
+    public int[] nearestIslandIndexes(int[] vals) {
+        int[] indexes = new int[vals.length];
+
+        int pos = 0;
+        for ( int k = 0; k < vals.length; k++ ) {
+            if ( k > 0 && vals[k] < vals[k - 1] ) {
+                pos = 0;
+            }
+            pos = findPos(vals[k] + 1, pos);
+            indexes[k] = nearestIslandIndex(vals[k], pos);
+        }
+
+        return indexes;
+    }
+
+    //----------------------------------------------------------
+    // Private methods
+    //----------------------------------------------------------
+
+    /**
+     * Returns a new set of the i-th island, from "0".
+     */
+    private IntSpan islandSet(int i) {
+        IntArrayList island = new IntArrayList(2);
+        island.add(edges.get(i * 2), edges.get(i * 2 + 1));
+
+        return new IntSpan(island);
+    }
+
+    /**
+     * Returns the nearer of the left island to leftVal and the right island to rightVal, or both of
+     * them for a tie. Indexes out of range are skipped.
+     */
+    private IntSpan nearestOf(int left, long leftVal, int right, long rightVal) {
+        boolean hasLeft  = left >= 0;
+        boolean hasRight = right < spanSize();
+
+        long leftDistance  = hasLeft ? leftVal - (edges.get(left * 2 + 1) - 1) : Long.MAX_VALUE;
+        long rightDistance = hasRight ? edges.get(right * 2) - rightVal : Long.MAX_VALUE;
+
+        IntSpan islands = new IntSpan();
+        if ( hasLeft && leftDistance <= rightDistance ) {
+            islands.addPair(edges.get(left * 2), edges.get(left * 2 + 1) - 1);
+        }
+        if ( hasRight && rightDistance <= leftDistance ) {
+            islands.addPair(edges.get(right * 2), edges.get(right * 2 + 1) - 1);
+        }
+
+        return islands;
+    }
+
+    /**
+     * pos is findPos(val + 1, ...)
+     */
+    private int nearestIslandIndex(int val, int pos) {
+        if ( isEmpty() ) {
+            return -1;
+        }
+        if ( (pos & 1) == 1 ) {
+            return (pos - 1) / 2;
+        }
+
+        int right = pos / 2;
+        int left  = right - 1;
+        if ( left < 0 ) {
+            return right;
+        }
+        if ( right >= spanSize() ) {
+            return left;
+        }
+
+        long leftDistance  = (long) val - (edges.get(left * 2 + 1) - 1);
+        long rightDistance = (long) edges.get(right * 2) - val;
+
+        return leftDistance <= rightDistance ? left : right;
+    }
+
+    private static IntArrayList listToRanges(int[] ints) {
+        Arrays.sort(ints);
+
+        IntArrayList ranges = new IntArrayList();
+
+        int len = ints.length;
+        int pos = 0;
+
+        while ( pos < ints.length ) {
+            int end = pos + 1;
+            while ( (end < len) && (ints[end] <= ints[end - 1] + 1) ) {
+                end++;
+            }
+            ranges.add(ints[pos], ints[end - 1]);
+            pos = end;
+        }
+
+        return ranges;
+    }
+
+    /**
+     * Returns the length of the runlist of this (non-empty) set.
+     *
+     * @return the length of the runlist
+     */
+    private int runlistLength() {
+        int length = spanSize() - 1; // commas
+
+        for ( int i = 0; i < edgeSize(); i += 2 ) {
+            int lower = edges.get(i);
+            int upper = edges.get(i + 1) - 1;
+
+            length += intLength(lower);
+            if ( lower != upper ) {
+                length += 1 + intLength(upper);
+            }
+        }
+
+        return length;
+    }
+
+    /**
+     * Formats the span starting at edges[i] into buf, preceded by a comma if it's not the first
+     * one.
+     *
+     * @param buf the buffer, must have MAX_SPAN_CHARS available
+     * @param pos the position in buf
+     * @param i   index of the lower edge
+     * @return the new position in buf
+     */
+    private int formatSpan(char[] buf, int pos, int i) {
+        int lower = edges.get(i);
+        int upper = edges.get(i + 1) - 1;
+
+        if ( i != 0 ) {
+            buf[pos++] = ',';
+        }
+
+        pos = formatInt(buf, pos, lower);
+        if ( lower != upper ) {
+            buf[pos++] = '-';
+            pos = formatInt(buf, pos, upper);
+        }
+
+        return pos;
+    }
+
+    private static int formatInt(char[] buf, int pos, int val) {
+        // val is never Integer.MIN_VALUE, which is smaller than NEG_INF
+        if ( val < 0 ) {
+            buf[pos++] = '-';
+            val = -val;
+        }
+
+        int end = pos + intLength(val);
+        int i   = end;
+        do {
+            buf[--i] = (char) ('0' + val % 10);
+            val /= 10;
+        } while ( val != 0 );
+
+        return end;
+    }
+
+    private static int intLength(int val) {
+        int length = 1;
+        if ( val < 0 ) {
+            length++;
+            val = -val;
+        }
+        while ( val >= 10 ) {
+            val /= 10;
+            length++;
+        }
+
+        return length;
+    }
+
+    private static void appendChunk(Appendable out, char[] chunk, CharBuffer wrapped, int length) throws IOException {
+        if ( out instanceof StringBuilder ) {
+            ((StringBuilder) out).append(chunk, 0, length);
+        } else if ( out instanceof Writer ) {
+            ((Writer) out).write(chunk, 0, length);
+        } else {
+            out.append(wrapped, 0, length);
+        }
+    }
+
+    private static byte[] toAscii(char[] chunk, byte[] bytes, int length) {
+        for ( int i = 0; i < length; i++ ) {
+            bytes[i] = (byte) chunk[i];
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Called before edges are written. Every mutator goes through the methods below, which call it.
+     *
+     * @throws UnsupportedOperationException if this set can't be modified
+     */
+    void checkMutable() throws UnsupportedOperationException {
+    }
+
+    /**
+     * Merges valid edges into this set.
+     *
+     * @param newEdges valid edges, used directly when this set is empty
+     */
+    void addEdges(IntArrayList newEdges) {
+        checkMutable();
+        if ( newEdges.isEmpty() ) {
+            return;
+        }
+
+        // When this IntSpan is empty, just take the supplied edges
+        if ( isEmpty() ) {
+            edges = newEdges;
+        } else {
+            sweepInPlace(newEdges, OP_UNION, true);
+        }
+        ranks = null;
+    }
+
+    /**
+     * Removes valid edges from this set.
+     *
+     * @param oldEdges valid edges
+     */
+    private void removeEdges(IntArrayList oldEdges) {
+        checkMutable();
+        if ( isEmpty() || oldEdges.isEmpty() ) {
+            return;
+        }
+
+        sweepInPlace(oldEdges, OP_DIFF, true);
+        ranks = null;
+    }
+
+    /**
+     * Replaces edges[from, to) with up to two new edges, moving the following edges once.
+     *
+     * @param from   index of the first replaced edge
+     * @param to     index after the last replaced edge
+     * @param first  the first new edge
+     * @param second the second new edge
+     * @param count  number of new edges, 0 to 2
+     */
+    private void spliceEdges(int from, int to, int first, int second, int count) {
+        checkMutable();
+        int size  = edgeSize();
+        int delta = count - (to - from);
+
+        edges.ensureCapacity(size + delta);
+        int[] buffer = edges.buffer;
+        System.arraycopy(buffer, to, buffer, from + count, size - to);
+        if ( count > 0 ) {
+            buffer[from] = first;
+        }
+        if ( count > 1 ) {
+            buffer[from + 1] = second;
+        }
+        edges.elementsCount = size + delta;
+        ranks = null;
+    }
+
+    /**
+     * Replaces edges of this set with the result of the operation on two sets, reusing the buffer.
+     * Either set may be this one.
+     *
+     * @param setA the first set
+     * @param setB the second set
+     * @param op   one of OP_UNION, OP_INTERSECT, OP_DIFF and OP_XOR
+     * @return this set
+     */
+    IntSpan assignSweep(IntSpan setA, IntSpan setB, int op) {
+        checkMutable();
+        if ( setA == this ) {
+            sweepInPlace(setB.getEdges(), op, true);
+        } else if ( setB == this ) {
+            sweepInPlace(setA.getEdges(), op, false);
+        } else {
+            IntArrayList edgesA = setA.getEdges();
+            IntArrayList edgesB = setB.getEdges();
+
+            edges.elementsCount = 0;
+            edges.ensureCapacity(edgesA.size() + edgesB.size());
+            edges.elementsCount = sweep(edgesA.buffer, 0, edgesA.size(), false,
+                edgesB.buffer, 0, edgesB.size(), false, op, Integer.MAX_VALUE, edges.buffer, 0);
+        }
+        ranks = null;
+
+        return this;
+    }
+
+    /**
+     * Merges the other edges into the buffer of this set.
+     * <p>
+     * Edges of this set are moved behind room for the other ones first. The merge writes at most
+     * one edge per edge read, so the writing position never overtakes the reading position.
+     *
+     * @param other     valid edges
+     * @param op        one of OP_UNION, OP_INTERSECT, OP_DIFF and OP_XOR
+     * @param thisFirst <tt>true</tt> if this set is the first operand
+     */
+    private void sweepInPlace(IntArrayList other, int op, boolean thisFirst) {
+        checkMutable();
+        if ( other == edges ) {
+            // x | x and x & x are x, x - x and x ^ x are empty
+            if ( op == OP_DIFF || op == OP_XOR ) {
+                edges.elementsCount = 0;
+            }
+            return;
+        }
+
+        int sizeA = edgeSize();
+        int sizeB = other.size();
+
+        edges.ensureCapacity(sizeA + sizeB);
+        int[] buffer = edges.buffer;
+        System.arraycopy(buffer, 0, buffer, sizeB, sizeA);
+
+        if ( thisFirst ) {
+            edges.elementsCount = sweep(buffer, sizeB, sizeB + sizeA, false,
+                other.buffer, 0, sizeB, false, op, Integer.MAX_VALUE, buffer, 0);
+        } else {
+            edges.elementsCount = sweep(other.buffer, 0, sizeB, false,
+                buffer, sizeB, sizeB + sizeA, false, op, Integer.MAX_VALUE, buffer, 0);
+        }
+    }
+
+    /**
+     * Converts the inclusive ranges to edges.
+     * <p>
+     * Ranges may be unsorted and overlapping. Sorted and disjoint ranges are converted in one pass,
+     * others are normalized by normalizeEdges().
+     *
+     * @param ranges the inclusive ranges of integers (ranges.size() must be even)
+     * @return edges representing the ranges
+     * @throws AssertionError for a range with upper smaller than lower
+     */
+    private static IntArrayList rangesToEdges(IntArrayList ranges) throws AssertionError {
+        int[] buffer = ranges.buffer;
+        int   size   = ranges.size();
+
+        IntArrayList newEdges = new IntArrayList(size);
+        int[]        out      = newEdges.buffer;
+
+        boolean sorted = true;
+        for ( int i = 0; i < size; i += 2 ) {
+            // checked after the increment, so Integer.MAX_VALUE can't wrap into a valid range
+            int upper = buffer[i + 1] + 1;
+            if ( buffer[i] > upper )
+                throw new AssertionError(String.format("Bad order: %s,%s", Integer.toString(buffer[i]), Integer.toString(upper)));
+            if ( i > 0 && buffer[i] <= buffer[i - 1] + 1 ) {
+                sorted = false;
+            }
+
+            out[i] = buffer[i];
+            out[i + 1] = upper;
+        }
+        newEdges.elementsCount = size;
+
+        if ( !sorted ) {
+            normalizeEdges(newEdges);
+        }
+
+        return newEdges;
+    }
+
+    /**
+     * Sorts and coalesces the pairs of (lower, upper + 1) in place, making them valid edges.
+     *
+     * @param rawEdges pairs of edges, may be unsorted, overlapping or adjacent
+     */
+    static void normalizeEdges(IntArrayList rawEdges) {
+        int[] buffer = rawEdges.buffer;
+
+        // Pack each pair into a long, lower in the high bits, so sorting longs sorts by lower
+        long[] pairs = new long[rawEdges.size() / 2];
+        for ( int i = 0; i < pairs.length; i++ ) {
+            pairs[i] = ((long) buffer[i * 2] << 32) | (buffer[i * 2 + 1] & 0xFFFFFFFFL);
+        }
+        Arrays.sort(pairs);
+
+        int k = 0;
+        for ( long pair : pairs ) {
+            int lower = (int) (pair >> 32);
+            int upper = (int) pair;
+
+            if ( k > 0 && lower <= buffer[k - 1] ) {
+                // overlapping or adjacent to the last span
+                if ( upper > buffer[k - 1] ) {
+                    buffer[k - 1] = upper;
+                }
+            } else {
+                buffer[k++] = lower;
+                buffer[k++] = upper;
+            }
+        }
+        rawEdges.elementsCount = k;
+    }
+
+    /**
+     * The linear merge engine of binary operations.
+     * <p>
+     * Walks both edge lists once, tracking whether the current position is inside each set, and
+     * writes an edge to the result whenever the membership of the result changes. Runs in O(n+m)
+     * with a single allocation of the result.
+     *
+     * @param edgesA edges of the first set
+     * @param edgesB edges of the second set
+     * @param op     one of OP_UNION, OP_INTERSECT, OP_DIFF and OP_XOR
+     * @return edges of the resulting set
+     */
+    private static IntArrayList sweep(IntArrayList edgesA, IntArrayList edgesB, int op) {
+        IntArrayList result = new IntArrayList(edgesA.size() + edgesB.size());
+        result.elementsCount = sweep(edgesA.buffer, 0, edgesA.size(), false,
+            edgesB.buffer, 0, edgesB.size(), false, op, Integer.MAX_VALUE, result.buffer, 0);
+
+        return result;
+    }
+
+    /**
+     * The linear merge engine on parts of edge lists, for partitions of [lo, hi).
+     * <p>
+     * inA and inB are memberships of lo. Edges a[i, endA) and b[j, endB) are those in (lo, hi). If
+     * lo is in the result, the caller has written it already. If hi - 1 is in the result, hi is
+     * written as the closing edge.
+     *
+     * @return the number of edges in out after writing
+     */
+    static int sweep(int[] a, int i, int endA, boolean inA,
+                     int[] b, int j, int endB, boolean inB,
+                     int op, int hi, int[] out, int k) {
+        boolean inR = isIn(op, inA, inB);
+
+        while ( i < endA || j < endB ) {
+            // nothing left to contribute
+            if ( i == endA && !inA && (op == OP_INTERSECT || op == OP_DIFF) ) break;
+            if ( j == endB && !inB && op == OP_INTERSECT ) break;
+
+            // Integer.MAX_VALUE is larger than any valid edge (POS_INF)
+            int valA = i < endA ? a[i] : Integer.MAX_VALUE;
+            int valB = j < endB ? b[j] : Integer.MAX_VALUE;
+            int val  = Math.min(valA, valB);
+
+            if ( valA == val ) {
+                inA = !inA;
+                i++;
+            }
+            if ( valB == val ) {
+                inB = !inB;
+                j++;
+            }
+
+            boolean inNew = isIn(op, inA, inB);
+            if ( inNew != inR ) {
+                out[k++] = val;
+                inR = inNew;
+            }
+        }
+
+        if ( inR ) {
+            out[k++] = hi;
+        }
+
+        return k;
+    }
+
+    private static boolean isIn(int op, boolean inA, boolean inB) {
+        switch ( op ) {
+            case OP_UNION:
+                return inA || inB;
+            case OP_INTERSECT:
+                return inA && inB;
+            case OP_DIFF:
+                return inA && !inB;
+            default:
+                return inA != inB;
+        }
+    }
+
+    /**
+     * The linear merge engine on a ForkJoinPool.
+     * <p>
+     * The coordinate space is cut at edges of the larger set into partitions. Both sets are located
+     * in each partition by findPos, and partitions are merged in parallel. Then partial results are
+     * concatenated, and a span ending at a border is joined with the one starting there.
+     */
+    private static IntArrayList parallelSweep(IntArrayList edgesA, IntArrayList edgesB, int op, ForkJoinPool pool) {
+        int sizeA = edgesA.size();
+        int sizeB = edgesB.size();
+        if ( sizeA + sizeB < PARALLEL_THRESHOLD || pool.getParallelism() < 2 ) {
+            return sweep(edgesA, edgesB, op);
+        }
+
+        // borders of partitions, ascending
+        IntArrayList larger  = sizeA >= sizeB ? edgesA : edgesB;
+        int          parts   = pool.getParallelism() * 4;
+        IntArrayList borders = new IntArrayList(parts + 1);
+        borders.add(Integer.MIN_VALUE);
+        for ( int p = 1; p < parts; p++ ) {
+            int border = larger.get((int) ((long) larger.size() * p / parts));
+            if ( border > borders.get(borders.size() - 1) ) {
+                borders.add(border);
+            }
+        }
+        borders.add(Integer.MAX_VALUE);
+
+        int[][] results = new int[borders.size() - 1][];
+        int[]   sizes   = new int[borders.size() - 1];
+        pool.invoke(new SweepTask(edgesA, edgesB, op, borders, results, sizes, 0, results.length));
+
+        // stitch
+        IntArrayList result = new IntArrayList(sizeA + sizeB);
+        int[]        out    = result.buffer;
+        int          k      = 0;
+        for ( int p = 0; p < results.length; p++ ) {
+            int from = 0;
+            if ( k > 0 && sizes[p] > 0 && out[k - 1] == results[p][0] ) {
+                // the previous part closes where this part opens
+                k--;
+                from = 1;
+            }
+            System.arraycopy(results[p], from, out, k, sizes[p] - from);
+            k += sizes[p] - from;
+        }
+        result.elementsCount = k;
+
+        return result;
+    }
+
+    /**
+     * Merges partitions in [low, high), splitting until one partition per task.
+     */
+    private static class SweepTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final IntArrayList edgesA;
+        private final IntArrayList edgesB;
+        private final int          op;
+        private final IntArrayList borders;
+        private final int[][]      results;
+        private final int[]        sizes;
+        private final int          low;
+        private final int          high;
+
+        SweepTask(IntArrayList edgesA, IntArrayList edgesB, int op, IntArrayList borders,
+                  int[][] results, int[] sizes, int low, int high) {
+            this.edgesA = edgesA;
+            this.edgesB = edgesB;
+            this.op = op;
+            this.borders = borders;
+            this.results = results;
+            this.sizes = sizes;
+            this.low = low;
+            this.high = high;
+        }
+
+        @Override
+        protected void compute() {
+            if ( high - low > 1 ) {
+                int mid = (low + high) >>> 1;
+                invokeAll(new SweepTask(edgesA, edgesB, op, borders, results, sizes, low, mid),
+                    new SweepTask(edgesA, edgesB, op, borders, results, sizes, mid, high));
+                return;
+            }
+
+            int[] a     = edgesA.buffer;
+            int[] b     = edgesB.buffer;
+            int   sizeA = edgesA.size();
+            int   sizeB = edgesB.size();
+
+            for ( int p = low; p < high; p++ ) {
+                int lo = borders.get(p);
+                int hi = borders.get(p + 1);
+
+                // edges in (lo, hi), and memberships of lo
+                int i    = lo == Integer.MIN_VALUE ? 0 : findPos(a, sizeA, lo + 1, 0);
+                int endA = findPos(a, sizeA, hi, i);
+                int j    = lo == Integer.MIN_VALUE ? 0 : findPos(b, sizeB, lo + 1, 0);
+                int endB = findPos(b, sizeB, hi, j);
+                boolean inA = (i & 1) == 1;
+                boolean inB = (j & 1) == 1;
+
+                int[] out = new int[endA - i + endB - j + 2];
+                int   k   = 0;
+                if ( isIn(op, inA, inB) ) {
+                    out[k++] = lo;
+                }
+                sizes[p] = sweep(a, i, endA, inA, b, j, endB, inB, op, hi, out, k);
+                results[p] = out;
+            }
+        }
+    }
+
+    /**
+     * Returns the prefix sums of span sizes, building them when needed.
+     * <p>
+     * ranks[i] is the number of elements before the i-th span, and the last item is the
+     * cardinality of this set.
+     *
+     * @return the prefix sums of span sizes
+     */
+    int[] getRanks() {
+        if ( ranks == null ) {
+            int   spanSize = spanSize();
+            int[] newRanks = new int[spanSize + 1];
+
+            for ( int i = 0; i < spanSize; i++ ) {
+                newRanks[i + 1] = newRanks[i] + edges.get(i * 2 + 1) - edges.get(i * 2);
+            }
+            ranks = newRanks;
+        }
+
+        return ranks;
+    }
+
+    /**
+     * Returns the number of the span containing the (index)th element, index start from "1".
+     *
+     * @param index a valid positive index
+     * @return the number of the span, start from "0"
+     */
+    private int spanOfIndex(int index) {
+        int[] ranks = getRanks();
+        int   pos   = Arrays.binarySearch(ranks, index);
+
+        // ranks[pos] == index means the last element of the previous span
+        return pos >= 0 ? pos - 1 : -pos - 2;
+    }
+
+    /**
+     * Returns <tt>true</tt> if any span of one edge list, widened by ext at both ends, overlaps
+     * the other edge list.
+     * <p>
+     * Walks the shorter list and binary searches the longer one, resuming from the last position.
+     *
+     * @param edgesA edges of the first set
+     * @param edgesB edges of the second set
+     * @param ext    number of integers added to each end of the spans
+     * @return <tt>true</tt> if the widened spans overlap
+     */
+    private static boolean overlaps(IntArrayList edgesA, IntArrayList edgesB, int ext) {
+        if ( edgesA.size() > edgesB.size() ) {
+            IntArrayList tmp = edgesA;
+            edgesA = edgesB;
+            edgesB = tmp;
+        }
+
+        int[] a     = edgesA.buffer;
+        int   sizeA = edgesA.size();
+        int[] b     = edgesB.buffer;
+        int   sizeB = edgesB.size();
+
+        int pos = 0;
+        for ( int i = 0; i < sizeA && pos < sizeB; i += 2 ) {
+            int lower = a[i] - ext;
+            int upper = a[i + 1] + ext;
+
+            // lower is in supplied, or the next span of supplied starts before upper
+            pos = findPos(b, sizeB, lower + 1, pos);
+            if ( (pos & 1) == 1 || (pos < sizeB && b[pos] < upper) ) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Return the index of the first element >= the supplied value.
+     * <p>
+     * If the supplied value is larger than any element in the list the returned value will be equal
+     * to the size of the list.
+     * <p>
+     * If (pos & 1) == 1, i.e. pos is odd number, val is in the set
      *
      * @param val supplied value
      * @param low start value
      * @return the index of the first element >= the supplied value.
      */
     private int findPos(int val, int low) {
-        int high = edgeSize();
+        return findPos(edges.buffer, edgeSize(), val, low);
+    }
+
+    /**
+     * Returns findPos(ints[k] + 1, 0), galloping from pos of the previous number if ascending.
+     */
+    private int batchPos(int[] ints, int k, int pos) {
+        int val = ints[k];
+        if ( val >= POS_INF ) {
+            return 0; // never a member, and val + 1 may overflow
+        }
+        if ( k > 0 && val < ints[k - 1] ) {
+            pos = 0;
+        }
+
+        return gallop(edges.buffer, edgeSize(), val + 1, pos);
+    }
+
+    /**
+     * Exponential search, the same result as findPos when all edges before low are less than val.
+     */
+    private static int gallop(int[] edges, int size, int val, int low) {
+        int high = low;
+        int step = 1;
+        while ( high < size && edges[high] < val ) {
+            low = high + 1;
+            high += step;
+            step <<= 1;
+        }
+
+        return findPos(edges, Math.min(high + 1, size), val, low);
+    }
+
+    static int findPos(int[] edges, int size, int val, int low) {
+        int high = size;
 
         while ( low < high ) {
-            int mid = (low + high) / 2;
-            if ( val < edges.get(mid) ) {
+            int mid = (low + high) >>> 1;
+            if ( val < edges[mid] ) {
                 high = mid;
-            } else if ( val > edges.get(mid) ) {
+            } else if ( val > edges[mid] ) {
                 low = mid + 1;
             } else {
                 return mid;
@@ -1177,4 +2640,12 @@ public class IntSpan {
     public IntSpan intersection(IntSpan supplied) {
         return intersect(supplied);
     }
+
+    public IntSpan retainAll(IntSpan supplied) {
+        return intersectInPlace(supplied);
+    }
+
+    public boolean intersects(IntSpan supplied) {
+        return overlaps(supplied);
+    }
 }
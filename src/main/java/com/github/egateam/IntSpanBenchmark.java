@@ -8,11 +8,16 @@ package com.github.egateam;
 
 import com.carrotsearch.hppc.IntArrayList;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Objects;
+import java.util.Random;
 
 @SuppressWarnings("WeakerAccess")
 public class IntSpanBenchmark {
@@ -23,9 +28,6 @@ public class IntSpanBenchmark {
             String r1 = readFile("/r1.yml");
             String r2 = readFile("/r2.yml");
 
-            r1 = r1.replaceFirst("---\\s+1: ", "").replaceAll("\\n", "");
-            r2 = r2.replaceFirst("---\\s+1: ", "").replaceAll("\\n", "");
-
             IntSpan set1;
             IntSpan set2;
 
@@ -75,16 +77,14 @@ public class IntSpanBenchmark {
 
         }
 
+        // runlist of the first key
         String readFile(String filename) {
             String      content = "";
             InputStream in      = getClass().getResourceAsStream(filename);
 
-            try ( BufferedReader reader = new BufferedReader(new InputStreamReader(in)) ) {
-                String line;
-                while ( (line = reader.readLine()) != null ) {
-                    content += line;
-                }
-
+            try ( Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8) ) {
+                IntSpanMap map = RunlistYaml.read(reader);
+                content = map.get(map.keySet().iterator().next()).toString();
             } catch ( IOException e ) {
                 e.printStackTrace();
             }
@@ -154,10 +154,213 @@ public class IntSpanBenchmark {
         }
     }
 
+    // Sweeps sizes and prints CSV of time and allocated bytes per op
+    private static class RunScaling {
+        // Each measurement repeats an op for at least this long
+        private static final long MIN_NANOS = 200L * 1000 * 1000;
+        // An op taking longer than this once is skipped for larger sizes
+        private static final long MAX_NANOS = 10L * 1000 * 1000 * 1000;
+
+        private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        private static class Workload {
+            final IntSpan A;
+            final IntSpan B;
+            final IntSpan infA;
+            final IntSpan infB;
+            final String  runlist;
+            final int[]   edges;
+            final int[]   order;   // span indexes in random order
+            final int[]   queries; // random integers in the range of A
+            final int[]   sorted;  // queries in ascending order
+            final IntSpan dest = new IntSpan(); // reused by the into-destination ops
+
+            Workload(int spans) {
+                IntSpanGenerator generator = new IntSpanGenerator(spans)
+                    .spans(spans)
+                    .spanLength(IntSpanGenerator.Lengths.geometric(50))
+                    .gapLength(IntSpanGenerator.Lengths.geometric(50));
+                IntSpan[] finite = generator.generatePair();
+                A = finite[0];
+                B = finite[1];
+                IntSpan[] infinite = generator.negInf(true).posInf(true).generatePair();
+                infA = infinite[0];
+                infB = infinite[1];
+
+                runlist = A.toString();
+                edges = A.getEdges().toArray();
+
+                Random random = new Random(spans);
+                order = new int[spans];
+                for ( int i = 0; i < spans; i++ ) {
+                    int j = random.nextInt(i + 1);
+                    order[i] = order[j];
+                    order[j] = i;
+                }
+                queries = new int[1 << 16];
+                for ( int i = 0; i < queries.length; i++ ) {
+                    queries[i] = A.min() + random.nextInt(A.max() - A.min() + 1);
+                }
+                sorted = queries.clone();
+                Arrays.sort(sorted);
+            }
+        }
+
+        private abstract static class Op {
+            final String name;
+            boolean skipped = false;
+
+            Op(String name) {
+                this.name = name;
+            }
+
+            abstract Object run(Workload w);
+        }
+
+        void run(int maxSpans) {
+            Op[] ops = new Op[]{
+                new Op("parse") {
+                    Object run(Workload w) {
+                        return new IntSpan(w.runlist);
+                    }
+                },
+                new Op("toString") {
+                    Object run(Workload w) {
+                        return w.A.toString();
+                    }
+                },
+                new Op("contains x65536") {
+                    Object run(Workload w) {
+                        int hits = 0;
+                        for ( int query : w.queries ) {
+                            if ( w.A.contains(query) ) hits++;
+                        }
+                        return hits;
+                    }
+                },
+                new Op("sorted batch x65536") {
+                    Object run(Workload w) {
+                        return w.A.countContained(w.sorted);
+                    }
+                },
+                new Op("addPair build") {
+                    // spans of the set added one by one in random order
+                    Object run(Workload w) {
+                        IntSpan set = new IntSpan();
+                        for ( int i : w.order ) {
+                            set.addPair(w.edges[2 * i], w.edges[2 * i + 1] - 1);
+                        }
+                        return set;
+                    }
+                },
+                new Op("builder build") {
+                    // the same spans, normalized once
+                    Object run(Workload w) {
+                        IntSpanBuilder builder = new IntSpanBuilder();
+                        for ( int i : w.order ) {
+                            builder.addPair(w.edges[2 * i], w.edges[2 * i + 1] - 1);
+                        }
+                        return builder.build();
+                    }
+                },
+                new Op("union") {
+                    Object run(Workload w) {
+                        return w.A.union(w.B);
+                    }
+                },
+                new Op("intersect") {
+                    Object run(Workload w) {
+                        return w.A.intersect(w.B);
+                    }
+                },
+                new Op("intersectInto") {
+                    Object run(Workload w) {
+                        return w.A.intersectInto(w.B, w.dest);
+                    }
+                },
+                new Op("diff") {
+                    Object run(Workload w) {
+                        return w.A.diff(w.B);
+                    }
+                },
+                new Op("xor") {
+                    Object run(Workload w) {
+                        return w.A.xor(w.B);
+                    }
+                },
+                new Op("complement") {
+                    Object run(Workload w) {
+                        return w.A.complement();
+                    }
+                },
+                new Op("holes") {
+                    Object run(Workload w) {
+                        return w.A.holes();
+                    }
+                },
+                new Op("inset") {
+                    Object run(Workload w) {
+                        return w.A.inset(10);
+                    }
+                },
+                new Op("fill") {
+                    Object run(Workload w) {
+                        return w.A.fill(50);
+                    }
+                },
+                new Op("infinite union") {
+                    Object run(Workload w) {
+                        return w.infA.union(w.infB);
+                    }
+                },
+            };
+
+            System.out.println("op,spans,reps,ns_per_op,bytes_per_op");
+            for ( int spans = 10; spans <= maxSpans; spans *= 10 ) {
+                Workload w = new Workload(spans);
+                for ( Op op : ops ) {
+                    if ( op.skipped ) continue;
+                    measure(op, spans, w);
+                }
+            }
+        }
+
+        private void measure(Op op, int spans, Workload w) {
+            op.run(w); // warm up
+
+            long threadId = Thread.currentThread().getId();
+            long bytes    = allocatedBytes(threadId);
+            long start    = System.nanoTime();
+            long elapsed;
+            int  reps     = 0;
+            do {
+                op.run(w);
+                reps++;
+                elapsed = System.nanoTime() - start;
+            } while ( elapsed < MIN_NANOS );
+            bytes = bytes < 0 ? -1 : (allocatedBytes(threadId) - bytes) / reps;
+
+            System.out.printf("%s,%d,%d,%d,%d\n", op.name, spans, reps, elapsed / reps, bytes);
+
+            if ( elapsed / reps > MAX_NANOS ) {
+                op.skipped = true;
+            }
+        }
+
+        // -1 if the JVM can't count allocated bytes
+        private long allocatedBytes(long threadId) {
+            if ( threads instanceof com.sun.management.ThreadMXBean ) {
+                return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(threadId);
+            }
+            return -1;
+        }
+    }
+
     /*
     mvn clean verify
     time java -jar target/jintspan-*-jar-with-dependencies.jar benchmark
     time java -jar target/jintspan-*-jar-with-dependencies.jar file 50
+    java -jar target/jintspan-*-jar-with-dependencies.jar scaling 1000000 > scaling.csv
      */
     public static void main(String[] args) {
         String jarName = new java.io.File(IntSpanBenchmark.class.getProtectionDomain()
@@ -166,7 +369,7 @@ public class IntSpanBenchmark {
             .getPath())
             .getName();
         String prefix = "java -jar " + jarName;
-        String usage  = String.format("Usage:\n    %s benchmark\n    %s file\n", prefix, prefix);
+        String usage  = String.format("Usage:\n    %s benchmark\n    %s file\n    %s scaling\n", prefix, prefix, prefix);
 
         if ( args.length == 0 ) {
             System.err.print(usage);
@@ -178,6 +381,12 @@ public class IntSpanBenchmark {
                 times = Integer.parseInt(args[1]);
             }
             new RunFile().run(times);
+        } else if ( Objects.equals(args[0], "scaling") ) {
+            int maxSpans = 1000000;
+            if ( args.length > 1 ) {
+                maxSpans = Integer.parseInt(args[1]);
+            }
+            new RunScaling().run(maxSpans);
         } else {
             System.err.printf("Unrecognized command %s", args[0]);
         }
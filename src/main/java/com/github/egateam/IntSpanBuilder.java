@@ -0,0 +1,167 @@
+/**
+ * <tt>IntSpanBuilder</tt> collects spans in any order and builds an {@link IntSpan} at once.
+ * <p>
+ * {@link IntSpan#addPair(int, int)} keeps the edges valid after each call, which moves the edges
+ * after the insertion point, so adding n unordered spans costs O(n^2). Here spans are appended as
+ * raw pairs, and normalized (sorted and coalesced) by {@link #compact()}, in O(n log n) for all of
+ * them. It's called by {@link #build()}, and automatically when the raw pairs double since the last
+ * compaction, so heavily overlapping input, like reads piling up on a region, takes memory of the
+ * result only.
+ * <pre>
+ * IntSpanBuilder builder = new IntSpanBuilder();
+ * for ( Alignment read : reads ) {
+ *     builder.addPair(read.start, read.end);
+ * }
+ * IntSpan covered = builder.build();
+ * </pre>
+ *
+ * @author Qiang Wang
+ * @since 1.7
+ */
+
+package com.github.egateam;
+
+import com.carrotsearch.hppc.IntArrayList;
+
+@SuppressWarnings("WeakerAccess")
+public final class IntSpanBuilder {
+    // Raw pairs aren't compacted automatically below this number of edges
+    private static final int MIN_COMPACT = 1 << 12;
+
+    // Pairs of (lower, upper + 1), valid edges up to compacted, raw pairs after
+    private final IntArrayList pairs;
+
+    private int compacted = 0;
+    private int threshold = MIN_COMPACT;
+
+    //----------------------------------------------------------
+    // Constructors
+    //----------------------------------------------------------
+
+    /**
+     * Constructs an empty builder.
+     */
+    public IntSpanBuilder() {
+        pairs = new IntArrayList();
+    }
+
+    /**
+     * Constructs an empty builder with room for the expected number of spans.
+     *
+     * @param expectedSpans the expected number of spans
+     */
+    public IntSpanBuilder(int expectedSpans) {
+        pairs = new IntArrayList(expectedSpans * 2);
+    }
+
+    //----------------------------------------------------------
+    // Additions
+    //----------------------------------------------------------
+
+    /**
+     * Adds a pair of inclusive integers, in O(1) amortized.
+     *
+     * @param lower lower boundary
+     * @param upper upper boundary ( upper must be larger than or equals to lower)
+     * @return this builder for method chaining
+     * @throws AssertionError if lower is larger than upper
+     */
+    public IntSpanBuilder addPair(int lower, int upper) throws AssertionError {
+        upper++;
+
+        if ( lower > upper )
+            throw new AssertionError(String.format("Bad order: %s,%s", Integer.toString(lower), Integer.toString(upper)));
+
+        pairs.add(lower, upper);
+        if ( pairs.size() >= threshold ) {
+            compact();
+        }
+
+        return this;
+    }
+
+    public IntSpanBuilder add(int n) {
+        return addPair(n, n);
+    }
+
+    public IntSpanBuilder add(int[] ints) {
+        for ( int n : ints ) {
+            addPair(n, n);
+        }
+
+        return this;
+    }
+
+    /**
+     * Adds all spans of the supplied set.
+     *
+     * @param supplied the supplied set
+     * @return this builder for method chaining
+     */
+    public IntSpanBuilder add(IntSpan supplied) {
+        IntArrayList edges = supplied.getEdges();
+        pairs.add(edges.buffer, 0, edges.size());
+        if ( pairs.size() >= threshold ) {
+            compact();
+        }
+
+        return this;
+    }
+
+    //----------------------------------------------------------
+    // Building
+    //----------------------------------------------------------
+
+    /**
+     * Sorts and coalesces all pairs collected so far, in place.
+     *
+     * @return this builder for method chaining
+     */
+    public IntSpanBuilder compact() {
+        if ( compacted < pairs.size() ) {
+            IntSpan.normalizeEdges(pairs);
+            compacted = pairs.size();
+        }
+        threshold = Math.max(MIN_COMPACT, compacted * 2);
+
+        return this;
+    }
+
+    /**
+     * Returns the number of pairs held, raw ones are counted separately even if they overlap.
+     *
+     * @return the number of pairs
+     */
+    public int pairSize() {
+        return pairs.size() / 2;
+    }
+
+    /**
+     * Returns a new set of all spans collected so far. The builder can go on collecting.
+     *
+     * @return a new set
+     */
+    public IntSpan build() {
+        compact();
+
+        return new IntSpan(pairs.clone());
+    }
+
+    /**
+     * Removes all spans, keeping the buffer.
+     *
+     * @return this builder for method chaining
+     */
+    public IntSpanBuilder clear() {
+        pairs.elementsCount = 0;
+        compacted = 0;
+        threshold = MIN_COMPACT;
+
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return build().toString();
+    }
+}
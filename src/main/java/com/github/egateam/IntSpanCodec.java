@@ -0,0 +1,246 @@
+/**
+ * <tt>IntSpanCodec</tt> is the compact binary format of {@link IntSpan}.
+ * <p>
+ * <strong>FORMAT (version 1)</strong>
+ * <pre>
+ * byte    version, always 1
+ * varint  number of spans
+ * varint  cardinality, as an unsigned 32-bit integer (wraps for infinite sets)
+ * varint  the first edge, zigzag encoded
+ * varint  delta to the previous edge, for each of the remaining edges
+ * </pre>
+ * Varints are unsigned LEB128, 7 bits per byte, low bits first. Edges are strictly increasing, so
+ * deltas are positive and mostly fit in one or two bytes.
+ *
+ * @author Qiang Wang
+ * @since 1.7
+ */
+
+package com.github.egateam;
+
+import com.carrotsearch.hppc.IntArrayList;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+final class IntSpanCodec {
+    static final byte VERSION = 1;
+
+    // Initial capacity of edges read from a DataInput
+    private static final int INITIAL_EDGES = 1 << 12;
+
+    private IntSpanCodec() {
+    }
+
+    /**
+     * Returns the number of bytes of the encoded edges.
+     *
+     * @param edges       valid edges
+     * @param cardinality cardinality of the set
+     * @return the number of bytes
+     */
+    static int encodedSize(IntArrayList edges, int cardinality) {
+        int[] buffer = edges.buffer;
+        int   size   = edges.size();
+
+        int length = 1 + varintLength(size / 2) + varintLength(cardinality);
+        if ( size > 0 ) {
+            length += varintLength(zigzag(buffer[0]));
+        }
+        for ( int i = 1; i < size; i++ ) {
+            length += varintLength(buffer[i] - buffer[i - 1]);
+        }
+
+        return length;
+    }
+
+    /**
+     * Encodes the edges.
+     *
+     * @param edges       valid edges
+     * @param cardinality cardinality of the set
+     * @return the encoded bytes
+     */
+    static byte[] encode(IntArrayList edges, int cardinality) {
+        int[]  buffer = edges.buffer;
+        int    size   = edges.size();
+        byte[] bytes  = new byte[encodedSize(edges, cardinality)];
+
+        int pos = 0;
+        bytes[pos++] = VERSION;
+        pos = writeVarint(bytes, pos, size / 2);
+        pos = writeVarint(bytes, pos, cardinality);
+        if ( size > 0 ) {
+            pos = writeVarint(bytes, pos, zigzag(buffer[0]));
+        }
+        for ( int i = 1; i < size; i++ ) {
+            // wraps when the delta is larger than Integer.MAX_VALUE, read back as unsigned
+            pos = writeVarint(bytes, pos, buffer[i] - buffer[i - 1]);
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Decodes edges from the supplied buffer, which is advanced past them.
+     *
+     * @param buffer the supplied buffer
+     * @return edges in the buffer
+     * @throws AssertionError for unsupported version or corrupted data
+     */
+    static IntArrayList decode(ByteBuffer buffer) throws AssertionError {
+        checkVersion(readByte(buffer));
+
+        int spanSize    = checkSpanSize(readVarint(buffer));
+        int cardinality = readVarint(buffer);
+
+        // each edge takes at least one byte, so a corrupted header can't claim a huge allocation
+        if ( spanSize * 2 > buffer.remaining() )
+            throw new AssertionError("Corrupted IntSpan data: truncated");
+
+        // exactly sized, so the edges can be frozen without copying
+        IntArrayList edges = new IntArrayList(0);
+        int[]        out   = new int[spanSize * 2];
+        edges.buffer = out;
+        if ( spanSize > 0 ) {
+            out[0] = unzigzag(readVarint(buffer));
+        }
+        for ( int i = 1; i < spanSize * 2; i++ ) {
+            out[i] = nextEdge(out[i - 1], readVarint(buffer));
+        }
+        edges.elementsCount = spanSize * 2;
+
+        checkCardinality(edges, cardinality);
+
+        return edges;
+    }
+
+    /**
+     * Decodes edges from the supplied input.
+     *
+     * @param in the supplied input
+     * @return edges in the input
+     * @throws IOException    if an I/O error occurs
+     * @throws AssertionError for unsupported version or corrupted data
+     */
+    static IntArrayList decode(DataInput in) throws IOException, AssertionError {
+        checkVersion(in.readByte());
+
+        int spanSize    = checkSpanSize(readVarint(in));
+        int cardinality = readVarint(in);
+
+        // the length of the input is unknown, so grow as edges are read instead of trusting spanSize
+        IntArrayList edges = new IntArrayList(Math.min(spanSize * 2, INITIAL_EDGES));
+        if ( spanSize > 0 ) {
+            int edge = unzigzag(readVarint(in));
+            edges.add(edge);
+            for ( int i = 1; i < spanSize * 2; i++ ) {
+                edge = nextEdge(edge, readVarint(in));
+                edges.add(edge);
+            }
+        }
+
+        checkCardinality(edges, cardinality);
+
+        return edges;
+    }
+
+    //----------------------------------------------------------
+    // Varints
+    //----------------------------------------------------------
+
+    private static int zigzag(int val) {
+        return (val << 1) ^ (val >> 31);
+    }
+
+    private static int unzigzag(int val) {
+        return (val >>> 1) ^ -(val & 1);
+    }
+
+    private static int varintLength(int val) {
+        int length = 1;
+        while ( (val & ~0x7F) != 0 ) {
+            val >>>= 7;
+            length++;
+        }
+
+        return length;
+    }
+
+    private static int writeVarint(byte[] bytes, int pos, int val) {
+        while ( (val & ~0x7F) != 0 ) {
+            bytes[pos++] = (byte) ((val & 0x7F) | 0x80);
+            val >>>= 7;
+        }
+        bytes[pos++] = (byte) val;
+
+        return pos;
+    }
+
+    private static int readVarint(ByteBuffer buffer) throws AssertionError {
+        int val = 0;
+        for ( int shift = 0; shift < 35; shift += 7 ) {
+            byte b = readByte(buffer);
+            val |= (b & 0x7F) << shift;
+            if ( b >= 0 ) {
+                return val;
+            }
+        }
+
+        throw new AssertionError("Corrupted IntSpan data: varint too long");
+    }
+
+    private static byte readByte(ByteBuffer buffer) throws AssertionError {
+        if ( !buffer.hasRemaining() )
+            throw new AssertionError("Corrupted IntSpan data: truncated");
+
+        return buffer.get();
+    }
+
+    private static int readVarint(DataInput in) throws IOException, AssertionError {
+        int val = 0;
+        for ( int shift = 0; shift < 35; shift += 7 ) {
+            byte b = in.readByte();
+            val |= (b & 0x7F) << shift;
+            if ( b >= 0 ) {
+                return val;
+            }
+        }
+
+        throw new AssertionError("Corrupted IntSpan data: varint too long");
+    }
+
+    //----------------------------------------------------------
+    // Checks
+    //----------------------------------------------------------
+
+    private static void checkVersion(byte version) throws AssertionError {
+        if ( version != VERSION )
+            throw new AssertionError(String.format("Unsupported IntSpan format version: %d", version));
+    }
+
+    private static int checkSpanSize(int spanSize) throws AssertionError {
+        // edges can't be more than 2^31 - 1
+        if ( spanSize < 0 || spanSize > Integer.MAX_VALUE / 2 )
+            throw new AssertionError("Corrupted IntSpan data: bad number of spans");
+        return spanSize;
+    }
+
+    private static int nextEdge(int edge, int delta) throws AssertionError {
+        // deltas are unsigned and may wrap, but 0 or a sum passing Integer.MAX_VALUE can't be valid
+        int next = edge + delta;
+        if ( next <= edge ) throw new AssertionError("Corrupted IntSpan data: edges not increasing");
+        return next;
+    }
+
+    private static void checkCardinality(IntArrayList edges, int cardinality) throws AssertionError {
+        int[] buffer = edges.buffer;
+        int   sum    = 0;
+        for ( int i = 0; i < edges.size(); i += 2 ) {
+            sum += buffer[i + 1] - buffer[i];
+        }
+
+        if ( sum != cardinality ) throw new AssertionError("Corrupted IntSpan data: cardinality mismatch");
+    }
+}
@@ -0,0 +1,322 @@
+/**
+ * <tt>IntSpanCoverage</tt> computes coverage depth, the number of sets or spans covering each
+ * integer.
+ * <p>
+ * Sets and spans are collected first, in any order and overlapping each other. The depth profile is
+ * built on the first query by one sweep over the sorted lower and upper bounds, as runs of
+ * <tt>(lower, upper, depth)</tt> with depth above 0. Adjacent runs have different depths.
+ * <pre>
+ * IntSpanCoverage coverage = new IntSpanCoverage()
+ *     .add(new IntSpan("1-10"))
+ *     .add(new IntSpan("5-15"))
+ *     .addPair(8, 20);
+ * coverage.toString();       // 1-4:1,5-7:2,8-10:3,11-15:2,16-20:1
+ * coverage.atLeast(2);       // 5-15
+ * coverage.exactly(3);       // 8-10
+ * </pre>
+ *
+ * @author Qiang Wang
+ * @since 1.7
+ */
+
+package com.github.egateam;
+
+import com.carrotsearch.hppc.IntArrayList;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+@SuppressWarnings("WeakerAccess")
+public final class IntSpanCoverage {
+    // Bounds of collected spans, upper ones are exclusive
+    private final IntArrayList lowers = new IntArrayList();
+    private final IntArrayList uppers = new IntArrayList();
+
+    // Runs of the depth profile, built lazily by profile() and dropped by every addition
+    private IntArrayList runLowers;
+    private IntArrayList runUppers;
+    private IntArrayList runDepths;
+
+    //----------------------------------------------------------
+    // Constructors
+    //----------------------------------------------------------
+
+    /**
+     * Constructs an empty coverage.
+     */
+    public IntSpanCoverage() {
+    }
+
+    /**
+     * Constructs the coverage of the supplied sets.
+     *
+     * @param sets the supplied sets
+     */
+    public IntSpanCoverage(Collection<? extends IntSpan> sets) {
+        for ( IntSpan set : sets ) {
+            add(set);
+        }
+    }
+
+    //----------------------------------------------------------
+    // Additions
+    //----------------------------------------------------------
+
+    /**
+     * Adds all spans of the supplied set, each of them adds 1 to the depth of its elements.
+     *
+     * @param set the supplied set
+     * @return this coverage for method chaining
+     */
+    public IntSpanCoverage add(IntSpan set) {
+        IntArrayList edges = set.getEdges();
+        for ( int i = 0; i < edges.size(); i += 2 ) {
+            lowers.add(edges.get(i));
+            uppers.add(edges.get(i + 1));
+        }
+        runLowers = null;
+
+        return this;
+    }
+
+    /**
+     * Adds a span, which adds 1 to the depth of its elements.
+     *
+     * @param lower lower bound of the span
+     * @param upper upper bound of the span
+     * @return this coverage for method chaining
+     * @throws AssertionError if lower is larger than upper
+     */
+    public IntSpanCoverage addPair(int lower, int upper) throws AssertionError {
+        upper++;
+
+        if ( lower > upper ) {
+            throw new AssertionError(String.format("Bad order: %s,%s", lower, upper));
+        }
+
+        lowers.add(lower);
+        uppers.add(upper);
+        runLowers = null;
+
+        return this;
+    }
+
+    //----------------------------------------------------------
+    // Depth profile
+    //----------------------------------------------------------
+
+    /**
+     * Returns the number of runs of the depth profile.
+     *
+     * @return the number of runs
+     */
+    public int runSize() {
+        profile();
+
+        return runDepths.size();
+    }
+
+    /**
+     * @param i index of the run, from 0
+     * @return lower bound of the i-th run
+     */
+    public int lower(int i) {
+        profile();
+
+        return runLowers.get(i);
+    }
+
+    /**
+     * @param i index of the run, from 0
+     * @return upper bound of the i-th run
+     */
+    public int upper(int i) {
+        profile();
+
+        return runUppers.get(i) - 1;
+    }
+
+    /**
+     * @param i index of the run, from 0
+     * @return depth of the i-th run
+     */
+    public int depth(int i) {
+        profile();
+
+        return runDepths.get(i);
+    }
+
+    /**
+     * Returns the depth of the supplied integer, in O(log n).
+     *
+     * @param val the supplied integer
+     * @return the number of spans covering val
+     */
+    public int depthAt(int val) {
+        profile();
+
+        int i = Arrays.binarySearch(runLowers.buffer, 0, runLowers.size(), val);
+        if ( i < 0 ) {
+            i = -i - 2; // the last run starting before val
+        }
+        if ( i < 0 || val >= runUppers.get(i) ) {
+            return 0;
+        }
+
+        return runDepths.get(i);
+    }
+
+    /**
+     * @return the largest depth, 0 for an empty coverage
+     */
+    public int maxDepth() {
+        profile();
+
+        int max = 0;
+        for ( int i = 0; i < runDepths.size(); i++ ) {
+            max = Math.max(max, runDepths.get(i));
+        }
+
+        return max;
+    }
+
+    /**
+     * Returns a new set of integers covered by at least <tt>min</tt> spans.
+     *
+     * @param min the least depth
+     * @return a new set
+     * @throws AssertionError if min is less than 1
+     */
+    public IntSpan atLeast(int min) throws AssertionError {
+        return between(min, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns a new set of integers covered by exactly <tt>depth</tt> spans.
+     *
+     * @param depth the depth
+     * @return a new set
+     * @throws AssertionError if depth is less than 1
+     */
+    public IntSpan exactly(int depth) throws AssertionError {
+        return between(depth, depth);
+    }
+
+    /**
+     * Returns a new set of integers covered by <tt>min</tt> to <tt>max</tt> spans.
+     *
+     * @param min the least depth
+     * @param max the largest depth
+     * @return a new set
+     * @throws AssertionError if min is less than 1
+     */
+    public IntSpan between(int min, int max) throws AssertionError {
+        if ( min < 1 ) {
+            throw new AssertionError(String.format("Bad depth: %d", min));
+        }
+        profile();
+
+        IntArrayList edges = new IntArrayList();
+        for ( int i = 0; i < runDepths.size(); i++ ) {
+            int depth = runDepths.get(i);
+            if ( depth < min || depth > max ) {
+                continue;
+            }
+
+            int size = edges.size();
+            if ( size > 0 && edges.get(size - 1) == runLowers.get(i) ) {
+                // adjacent runs of different depths
+                edges.set(size - 1, runUppers.get(i));
+            } else {
+                edges.add(runLowers.get(i), runUppers.get(i));
+            }
+        }
+
+        return new IntSpan(edges);
+    }
+
+    /**
+     * Returns the depth profile as a string, e.g. "1-4:1,5-7:2".
+     *
+     * @return runs of the depth profile
+     */
+    @Override
+    public String toString() {
+        profile();
+
+        if ( runDepths.isEmpty() ) {
+            return IntSpan.getEmptyString();
+        }
+
+        StringBuilder builder = new StringBuilder();
+        for ( int i = 0; i < runDepths.size(); i++ ) {
+            if ( i > 0 ) {
+                builder.append(',');
+            }
+
+            int lower = runLowers.get(i);
+            int upper = runUppers.get(i) - 1;
+            builder.append(lower);
+            if ( lower != upper ) {
+                builder.append('-').append(upper);
+            }
+            builder.append(':').append(runDepths.get(i));
+        }
+
+        return builder.toString();
+    }
+
+    //----------------------------------------------------------
+    // Private methods
+    //----------------------------------------------------------
+
+    /**
+     * Sweeps sorted bounds, depth goes up at lower bounds and down at upper bounds.
+     */
+    private void profile() {
+        if ( runLowers != null ) {
+            return;
+        }
+
+        int   count = lowers.size();
+        int[] up    = Arrays.copyOf(lowers.buffer, count);
+        int[] down  = Arrays.copyOf(uppers.buffer, count);
+        Arrays.sort(up);
+        Arrays.sort(down);
+
+        IntArrayList newLowers = new IntArrayList();
+        IntArrayList newUppers = new IntArrayList();
+        IntArrayList newDepths = new IntArrayList();
+
+        int i = 0, j = 0, depth = 0;
+        while ( j < count ) {
+            int pos = i < count ? Math.min(up[i], down[j]) : down[j];
+            while ( i < count && up[i] == pos ) {
+                depth++;
+                i++;
+            }
+            while ( j < count && down[j] == pos ) {
+                depth--;
+                j++;
+            }
+
+            int runs = newDepths.size();
+            if ( runs > 0 && newUppers.get(runs - 1) == Integer.MIN_VALUE ) {
+                // close the open run
+                if ( depth == newDepths.get(runs - 1) ) {
+                    continue;
+                }
+                newUppers.set(runs - 1, pos);
+            }
+            if ( depth > 0 ) {
+                newLowers.add(pos);
+                newUppers.add(Integer.MIN_VALUE); // open
+                newDepths.add(depth);
+            }
+        }
+
+        runLowers = newLowers;
+        runUppers = newUppers;
+        runDepths = newDepths;
+    }
+}
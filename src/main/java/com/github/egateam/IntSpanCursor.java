@@ -0,0 +1,139 @@
+/**
+ * <tt>IntSpanCursor</tt> walks spans of an {@link IntSpan} without allocating.
+ * <p>
+ * A cursor covers a range of spans and can be split on span boundaries with {@link #trySplit()},
+ * so the parts can be walked in parallel, e.g. by a {@link java.util.concurrent.RecursiveAction}.
+ * <pre>
+ * IntSpanCursor cursor = set.spanCursor();
+ * while ( cursor.next() ) {
+ *     System.out.println(cursor.lower() + "-" + cursor.upper());
+ * }
+ * </pre>
+ * The set must not be modified while it's walked.
+ *
+ * @author Qiang Wang
+ * @since 1.7
+ */
+
+package com.github.egateam;
+
+import com.carrotsearch.hppc.procedures.IntIntProcedure;
+import com.carrotsearch.hppc.procedures.IntProcedure;
+
+@SuppressWarnings("WeakerAccess")
+public final class IntSpanCursor {
+    private final int[] edges;
+
+    private int current; // index of the current span
+    private int end;     // exclusive
+
+    /**
+     * @param edges valid edges
+     * @param from  index of the first span
+     * @param end   index after the last span
+     */
+    IntSpanCursor(int[] edges, int from, int end) {
+        this.edges = edges;
+        this.current = from - 1;
+        this.end = end;
+    }
+
+    /**
+     * Moves to the next span.
+     *
+     * @return <tt>false</tt> if there are no more spans
+     */
+    public boolean next() {
+        if ( current + 1 >= end ) {
+            current = end;
+            return false;
+        }
+        current++;
+
+        return true;
+    }
+
+    /**
+     * @return lower bound of the current span
+     */
+    public int lower() {
+        return edges[current * 2];
+    }
+
+    /**
+     * @return upper bound of the current span
+     */
+    public int upper() {
+        return edges[current * 2 + 1] - 1;
+    }
+
+    /**
+     * @return index of the current span, from "0"
+     */
+    public int index() {
+        return current;
+    }
+
+    /**
+     * @return the number of spans after the current one
+     */
+    public int remaining() {
+        return Math.max(0, end - current - 1);
+    }
+
+    /**
+     * Splits off the first half of remaining spans into a new cursor, this cursor keeps the second
+     * half.
+     *
+     * @return a cursor over the first half of remaining spans, or <tt>null</tt> if there are less
+     * than two remaining spans
+     */
+    public IntSpanCursor trySplit() {
+        int remaining = remaining();
+        if ( remaining < 2 ) {
+            return null;
+        }
+
+        int from = current + 1;
+        int mid  = from + remaining / 2;
+
+        IntSpanCursor prefix = new IntSpanCursor(edges, from, mid);
+        current = mid - 1;
+
+        return prefix;
+    }
+
+    /**
+     * Applies the procedure to lower and upper bounds of each remaining span.
+     *
+     * @param procedure the supplied procedure
+     * @param <T>       type of the procedure
+     * @return the supplied procedure
+     */
+    public <T extends IntIntProcedure> T forEachRemaining(T procedure) {
+        while ( next() ) {
+            procedure.apply(lower(), upper());
+        }
+
+        return procedure;
+    }
+
+    /**
+     * Applies the procedure to each element of remaining spans.
+     *
+     * @param procedure the supplied procedure
+     * @param <T>       type of the procedure
+     * @return the supplied procedure
+     */
+    public <T extends IntProcedure> T forEachElement(T procedure) {
+        while ( next() ) {
+            int upper = upper();
+            for ( int val = lower(); ; val++ ) {
+                procedure.apply(val);
+                if ( val == upper ) break; // upper may be the largest int
+            }
+        }
+
+        return procedure;
+    }
+}
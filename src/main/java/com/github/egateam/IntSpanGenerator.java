@@ -0,0 +1,275 @@
+/**
+ * <tt>IntSpanGenerator</tt> makes deterministic synthetic sets for benchmarks and tests.
+ * <p>
+ * Spans and gaps alternate from <tt>start</tt>, their lengths are drawn from {@link Lengths}. The
+ * same seed and settings always give the same sets.
+ * <pre>
+ * IntSpanGenerator generator = new IntSpanGenerator(42)
+ *     .spans(10000)
+ *     .spanLength(Lengths.geometric(50))
+ *     .gapLength(Lengths.uniform(1, 100))
+ *     .overlap(0.5);
+ * IntSpan[] pair = generator.generatePair();
+ * </pre>
+ *
+ * @author Qiang Wang
+ * @since 1.7
+ */
+
+package com.github.egateam;
+
+import com.carrotsearch.hppc.IntArrayList;
+
+import java.util.Random;
+
+@SuppressWarnings("WeakerAccess")
+public final class IntSpanGenerator {
+    private final long seed;
+
+    private int     spans      = 100;
+    private int     start      = 0;
+    private Lengths spanLength = Lengths.uniform(1, 100);
+    private Lengths gapLength  = Lengths.uniform(1, 100);
+    private double  overlap    = 0.5;
+    private boolean negInf     = false;
+    private boolean posInf     = false;
+
+    /**
+     * Constructs a generator with default settings: 100 spans and gaps of 1 to 100 integers from 0,
+     * half of the spans overlapped in pairs, no infinite arms.
+     *
+     * @param seed seed of the random numbers
+     */
+    public IntSpanGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    //----------------------------------------------------------
+    // Settings
+    //----------------------------------------------------------
+
+    /**
+     * @param spans number of finite spans
+     * @return this generator for method chaining
+     */
+    public IntSpanGenerator spans(int spans) throws AssertionError {
+        if ( spans < 0 ) {
+            throw new AssertionError(String.format("Bad number of spans: %d", spans));
+        }
+        this.spans = spans;
+
+        return this;
+    }
+
+    /**
+     * @param start the first element of the first finite span
+     * @return this generator for method chaining
+     */
+    public IntSpanGenerator start(int start) {
+        this.start = start;
+
+        return this;
+    }
+
+    /**
+     * @param lengths distribution of span lengths
+     * @return this generator for method chaining
+     */
+    public IntSpanGenerator spanLength(Lengths lengths) {
+        this.spanLength = lengths;
+
+        return this;
+    }
+
+    /**
+     * @param lengths distribution of gap lengths
+     * @return this generator for method chaining
+     */
+    public IntSpanGenerator gapLength(Lengths lengths) {
+        this.gapLength = lengths;
+
+        return this;
+    }
+
+    /**
+     * Fraction of spans of the second set of {@link #generatePair()} overlapping spans of the first
+     * one. Other spans are placed in gaps.
+     *
+     * @param overlap fraction between 0 and 1
+     * @return this generator for method chaining
+     */
+    public IntSpanGenerator overlap(double overlap) throws AssertionError {
+        if ( overlap < 0 || overlap > 1 ) {
+            throw new AssertionError(String.format("Bad overlap fraction: %f", overlap));
+        }
+        this.overlap = overlap;
+
+        return this;
+    }
+
+    /**
+     * @param negInf add a span from negative infinity before the finite spans
+     * @return this generator for method chaining
+     */
+    public IntSpanGenerator negInf(boolean negInf) {
+        this.negInf = negInf;
+
+        return this;
+    }
+
+    /**
+     * @param posInf add a span to positive infinity after the finite spans
+     * @return this generator for method chaining
+     */
+    public IntSpanGenerator posInf(boolean posInf) {
+        this.posInf = posInf;
+
+        return this;
+    }
+
+    //----------------------------------------------------------
+    // Generating
+    //----------------------------------------------------------
+
+    /**
+     * Returns a new set.
+     *
+     * @return a new set
+     * @throws AssertionError if the spans don't fit in the range of IntSpan
+     */
+    public IntSpan generate() throws AssertionError {
+        return generatePair(false)[0];
+    }
+
+    /**
+     * Returns two new sets of the same shape, about {@link #overlap(double)} of spans of the second
+     * set overlap spans of the first set.
+     *
+     * @return two new sets
+     * @throws AssertionError if the spans don't fit in the range of IntSpan
+     */
+    public IntSpan[] generatePair() throws AssertionError {
+        return generatePair(true);
+    }
+
+    private IntSpan[] generatePair(boolean both) throws AssertionError {
+        // the first set doesn't depend on whether the second one is generated
+        Random random  = new Random(seed);
+        Random pairing = new Random(~seed);
+
+        IntArrayList first  = new IntArrayList(2 * spans + 4);
+        IntArrayList second = new IntArrayList(both ? 2 * spans + 4 : 0);
+
+        long pos = start;
+        if ( negInf ) {
+            long gap = gapLength.next(random);
+            addEdges(first, IntSpan.getNegInf(), pos - gap);
+            addEdges(second, IntSpan.getNegInf(), pos - gap);
+        }
+
+        for ( int i = 0; i < spans; i++ ) {
+            long length = spanLength.next(random);
+            long gap    = gapLength.next(random);
+            addEdges(first, pos, pos + length);
+
+            if ( both ) {
+                if ( pairing.nextDouble() < overlap ) {
+                    // shifted by up to a half of the span, still overlapped
+                    long shift = (long) (pairing.nextDouble() * (length + 1) / 2);
+                    if ( pairing.nextBoolean() ) shift = -shift;
+                    addEdges(second, pos + shift, pos + length + shift);
+                } else {
+                    // the middle of the gap
+                    addEdges(second, pos + length + (gap - 1) / 2, pos + length + (gap - 1) / 2 + 1);
+                }
+            }
+
+            pos += length + gap;
+        }
+
+        if ( posInf ) {
+            addEdges(first, pos, (long) IntSpan.getPosInf() + 1);
+            addEdges(second, pos, (long) IntSpan.getPosInf() + 1);
+        }
+
+        IntSpan firstSet = new IntSpan(first);
+        if ( !both ) {
+            return new IntSpan[]{firstSet};
+        }
+
+        // shifted spans may touch or overlap each other
+        IntSpan.normalizeEdges(second);
+        return new IntSpan[]{firstSet, new IntSpan(second)};
+    }
+
+    /**
+     * Appends [lower, upper) to edges.
+     */
+    private static void addEdges(IntArrayList edges, long lower, long upper) throws AssertionError {
+        if ( lower < IntSpan.getNegInf() || upper > (long) IntSpan.getPosInf() + 1 ) {
+            throw new AssertionError(String.format("Span out of range: %d-%d", lower, upper - 1));
+        }
+
+        edges.add((int) lower, (int) upper);
+    }
+
+    //----------------------------------------------------------
+    // Distributions
+    //----------------------------------------------------------
+
+    /**
+     * Distributions of lengths of spans or gaps, all lengths are at least 1.
+     */
+    public static abstract class Lengths {
+        abstract long next(Random random);
+
+        /**
+         * @param length the length
+         * @return all lengths are the same
+         */
+        public static Lengths fixed(final int length) throws AssertionError {
+            return uniform(length, length);
+        }
+
+        /**
+         * @param min the shortest length
+         * @param max the longest length
+         * @return lengths uniformly distributed in [min, max]
+         */
+        public static Lengths uniform(final int min, final int max) throws AssertionError {
+            if ( min < 1 || max < min ) {
+                throw new AssertionError(String.format("Bad lengths: %d-%d", min, max));
+            }
+
+            return new Lengths() {
+                @Override
+                long next(Random random) {
+                    return min + (long) (random.nextDouble() * ((long) max - min + 1));
+                }
+            };
+        }
+
+        /**
+         * Many short ones and a few long ones, like reads or features along a genome.
+         *
+         * @param mean the mean length
+         * @return lengths geometrically distributed with the supplied mean
+         */
+        public static Lengths geometric(final double mean) throws AssertionError {
+            if ( mean < 1 ) {
+                throw new AssertionError(String.format("Bad mean length: %f", mean));
+            }
+
+            return new Lengths() {
+                @Override
+                long next(Random random) {
+                    if ( mean == 1 ) {
+                        return 1;
+                    }
+                    double u = 1 - random.nextDouble(); // in (0, 1]
+                    return 1 + (long) (Math.log(u) / Math.log(1 - 1 / mean));
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,374 @@
+/**
+ * <tt>IntSpanMap</tt> handles sets of many sequences, e.g. chromosomes, keyed by their names.
+ * <p>
+ * Set operations are done per key. With more than one key, they are fanned out across a {@link
+ * ForkJoinPool}, one task per key. A missing key is the same as an empty set.
+ * <p>
+ * Reads and writes the runlist YAML files like
+ * <pre>
+ * ---
+ * 1: 3760-3913,3996-4276
+ * 2: 1-100
+ * </pre>
+ *
+ * @author Qiang Wang
+ * @since 1.7
+ */
+
+package com.github.egateam;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+@SuppressWarnings("WeakerAccess")
+public class IntSpanMap {
+    // Shared by all maps unless a pool is supplied
+    private static ForkJoinPool defaultPool;
+
+    // Keep keys in insertion order, which is the order of YAML files
+    private final Map<String, IntSpan> sets = new LinkedHashMap<>();
+
+    //----------------------------------------------------------
+    // Constructors
+    //----------------------------------------------------------
+
+    /**
+     * Constructs an empty map.
+     */
+    public IntSpanMap() {
+    }
+
+    /**
+     * Constructs a map with mutable copies of the supplied sets.
+     *
+     * @param supplied the supplied sets
+     */
+    public IntSpanMap(Map<String, ? extends IntSpan> supplied) {
+        for ( Map.Entry<String, ? extends IntSpan> entry : supplied.entrySet() ) {
+            sets.put(entry.getKey(), new IntSpan(entry.getValue()));
+        }
+    }
+
+    //----------------------------------------------------------
+    // Map contents
+    //----------------------------------------------------------
+
+    /**
+     * Returns the set of the supplied key.
+     *
+     * @param key the key
+     * @return the set, or <tt>null</tt> if there is no such key
+     */
+    public IntSpan get(String key) {
+        return sets.get(key);
+    }
+
+    /**
+     * Returns the set of the supplied key, creating an empty one if there is no such key.
+     *
+     * @param key the key
+     * @return the set
+     */
+    public IntSpan getOrCreate(String key) {
+        IntSpan set = sets.get(key);
+        if ( set == null ) {
+            set = new IntSpan();
+            sets.put(key, set);
+        }
+
+        return set;
+    }
+
+    /**
+     * Associates the supplied set with the key.
+     *
+     * @param key the key
+     * @param set the set
+     * @return this map for method chaining
+     */
+    public IntSpanMap put(String key, IntSpan set) {
+        sets.put(key, set);
+
+        return this;
+    }
+
+    /**
+     * Removes the set of the supplied key.
+     *
+     * @param key the key
+     * @return the removed set, or <tt>null</tt> if there is no such key
+     */
+    public IntSpan remove(String key) {
+        return sets.remove(key);
+    }
+
+    public boolean containsKey(String key) {
+        return sets.containsKey(key);
+    }
+
+    /**
+     * Returns the keys in insertion order.
+     *
+     * @return the keys
+     */
+    public Set<String> keySet() {
+        return Collections.unmodifiableSet(sets.keySet());
+    }
+
+    public int size() {
+        return sets.size();
+    }
+
+    public boolean isEmpty() {
+        return sets.isEmpty();
+    }
+
+    /**
+     * Returns the total number of elements of all sets.
+     *
+     * @return the total number of elements
+     */
+    public long cardinality() {
+        long cardinality = 0;
+        for ( IntSpan set : sets.values() ) {
+            cardinality += set.cardinality();
+        }
+
+        return cardinality;
+    }
+
+    /**
+     * Returns the fraction of elements of this map covered by the supplied map.
+     *
+     * @param supplied the supplied map
+     * @return |this ∩ supplied| / |this|, 0 for an empty map
+     */
+    public double coverage(IntSpanMap supplied) {
+        long cardinality = cardinality();
+        if ( cardinality == 0 ) {
+            return 0;
+        }
+
+        return (double) intersect(supplied).cardinality() / cardinality;
+    }
+
+    //----------------------------------------------------------
+    // Set binary operations ( create new map)
+    //----------------------------------------------------------
+
+    /**
+     * Returns a new map of the per key union of this map and the supplied map.
+     *
+     * @param supplied map to be operated with this map
+     * @return the union of this map and the supplied map
+     */
+    public IntSpanMap union(IntSpanMap supplied) {
+        return union(supplied, getDefaultPool());
+    }
+
+    public IntSpanMap union(IntSpanMap supplied, ForkJoinPool pool) {
+        return operate(supplied, IntSpan.OP_UNION, pool);
+    }
+
+    /**
+     * Returns a new map of the per key intersection of this map and the supplied map. Only keys in
+     * both maps are kept.
+     *
+     * @param supplied map to be operated with this map
+     * @return the intersection of this map and the supplied map
+     */
+    public IntSpanMap intersect(IntSpanMap supplied) {
+        return intersect(supplied, getDefaultPool());
+    }
+
+    public IntSpanMap intersect(IntSpanMap supplied, ForkJoinPool pool) {
+        return operate(supplied, IntSpan.OP_INTERSECT, pool);
+    }
+
+    /**
+     * Returns a new map of the per key difference of this map and the supplied map. Keys of this map
+     * are kept.
+     *
+     * @param supplied map to be operated with this map
+     * @return the difference of this map and the supplied map
+     */
+    public IntSpanMap diff(IntSpanMap supplied) {
+        return diff(supplied, getDefaultPool());
+    }
+
+    public IntSpanMap diff(IntSpanMap supplied, ForkJoinPool pool) {
+        return operate(supplied, IntSpan.OP_DIFF, pool);
+    }
+
+    /**
+     * Returns a new map of the per key symmetric difference of this map and the supplied map.
+     *
+     * @param supplied map to be operated with this map
+     * @return the symmetric difference of this map and the supplied map
+     */
+    public IntSpanMap xor(IntSpanMap supplied) {
+        return xor(supplied, getDefaultPool());
+    }
+
+    public IntSpanMap xor(IntSpanMap supplied, ForkJoinPool pool) {
+        return operate(supplied, IntSpan.OP_XOR, pool);
+    }
+
+    //----------------------------------------------------------
+    // Runlist YAML
+    //----------------------------------------------------------
+
+    /**
+     * Reads a runlist YAML document of <tt>key: runlist</tt> lines, see {@link RunlistYaml}.
+     *
+     * @param reader the supplied reader, not closed
+     * @return a new map
+     * @throws IOException    if an I/O error occurs
+     * @throws AssertionError for malformed lines or runlists
+     */
+    public static IntSpanMap read(Reader reader) throws IOException, AssertionError {
+        return RunlistYaml.read(reader);
+    }
+
+    /**
+     * Writes this map as a runlist YAML document.
+     *
+     * @param writer the supplied writer, not closed
+     * @throws IOException if an I/O error occurs
+     */
+    public void write(Writer writer) throws IOException {
+        writer.write("---\n");
+        for ( Map.Entry<String, IntSpan> entry : sets.entrySet() ) {
+            writer.write(entry.getKey());
+            writer.write(": ");
+            entry.getValue().appendTo(writer);
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    static String unquote(String key) {
+        if ( key.length() >= 2 ) {
+            char first = key.charAt(0);
+            char last  = key.charAt(key.length() - 1);
+            if ( (first == '"' || first == '\'') && first == last ) {
+                return key.substring(1, key.length() - 1);
+            }
+        }
+
+        return key;
+    }
+
+    //----------------------------------------------------------
+    // Private methods
+    //----------------------------------------------------------
+
+    private static synchronized ForkJoinPool getDefaultPool() {
+        if ( defaultPool == null ) {
+            defaultPool = new ForkJoinPool();
+        }
+
+        return defaultPool;
+    }
+
+    private IntSpanMap operate(IntSpanMap supplied, int op, ForkJoinPool pool) {
+        // keys of the result
+        List<String> keys = new ArrayList<>();
+        for ( String key : sets.keySet() ) {
+            if ( op != IntSpan.OP_INTERSECT || supplied.containsKey(key) ) {
+                keys.add(key);
+            }
+        }
+        if ( op == IntSpan.OP_UNION || op == IntSpan.OP_XOR ) {
+            for ( String key : supplied.keySet() ) {
+                if ( !sets.containsKey(key) ) {
+                    keys.add(key);
+                }
+            }
+        }
+
+        IntSpan[] left    = new IntSpan[keys.size()];
+        IntSpan[] right   = new IntSpan[keys.size()];
+        IntSpan[] results = new IntSpan[keys.size()];
+        for ( int i = 0; i < keys.size(); i++ ) {
+            left[i] = get(keys.get(i));
+            right[i] = supplied.get(keys.get(i));
+        }
+
+        KeyTask task = new KeyTask(op, left, right, results, 0, keys.size());
+        if ( keys.size() > 1 ) {
+            pool.invoke(task);
+        } else {
+            task.compute();
+        }
+
+        IntSpanMap newMap = new IntSpanMap();
+        for ( int i = 0; i < keys.size(); i++ ) {
+            newMap.put(keys.get(i), results[i]);
+        }
+
+        return newMap;
+    }
+
+    /**
+     * Operates on keys in [low, high), splitting until one key per task.
+     */
+    private static class KeyTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int       op;
+        private final IntSpan[] left;
+        private final IntSpan[] right;
+        private final IntSpan[] results;
+        private final int       low;
+        private final int       high;
+
+        KeyTask(int op, IntSpan[] left, IntSpan[] right, IntSpan[] results, int low, int high) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+            this.results = results;
+            this.low = low;
+            this.high = high;
+        }
+
+        @Override
+        protected void compute() {
+            if ( high - low > 1 ) {
+                int mid = (low + high) >>> 1;
+                invokeAll(new KeyTask(op, left, right, results, low, mid),
+                    new KeyTask(op, left, right, results, mid, high));
+                return;
+            }
+
+            for ( int i = low; i < high; i++ ) {
+                IntSpan a = left[i] == null ? new IntSpan() : left[i];
+                IntSpan b = right[i] == null ? new IntSpan() : right[i];
+
+                switch ( op ) {
+                    case IntSpan.OP_UNION:
+                        results[i] = a.union(b);
+                        break;
+                    case IntSpan.OP_INTERSECT:
+                        results[i] = a.intersect(b);
+                        break;
+                    case IntSpan.OP_DIFF:
+                        results[i] = a.diff(b);
+                        break;
+                    default:
+                        results[i] = a.xor(b);
+                        break;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,245 @@
+/**
+ * <tt>IntSpanStore</tt> is a file of many named {@link IntSpan}s, read through a memory map.
+ * <p>
+ * The file is mapped read-only when opened and only the directory is read. Each set is decoded on
+ * first access and cached as an {@link ImmutableIntSpan}, so processes opening the same file share
+ * one page-cached copy and start without parsing anything.
+ * <p>
+ * <strong>FORMAT (version 1)</strong>
+ * <pre>
+ * byte[4]  magic "ISPS"
+ * int      version, always 1
+ * int      number of sets
+ * for each set, in writing order:
+ *     int    length of the name in bytes
+ *     byte[] name, in UTF-8
+ *     long   offset of the set from the end of the directory
+ *     int    length of the set in bytes
+ * sets in the binary format of {@link IntSpanCodec}
+ * </pre>
+ * A single mapping is limited to 2 GB, so is the file.
+ *
+ * @author Qiang Wang
+ * @since 1.7
+ */
+
+package com.github.egateam;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@SuppressWarnings("WeakerAccess")
+public final class IntSpanStore implements Closeable {
+    private static final byte[] MAGIC   = "ISPS".getBytes(StandardCharsets.US_ASCII);
+    private static final int    VERSION = 1;
+
+    // Bytes of a directory entry besides the name: its length, offset and length of the set
+    private static final int ENTRY_BYTES = 4 + 8 + 4;
+
+    private final RandomAccessFile file;
+    private final MappedByteBuffer mapped;
+
+    // name => {offset, length}, in writing order
+    private final Map<String, long[]> directory;
+
+    private final ConcurrentHashMap<String, ImmutableIntSpan> decoded = new ConcurrentHashMap<>();
+
+    private IntSpanStore(RandomAccessFile file, MappedByteBuffer mapped, Map<String, long[]> directory) {
+        this.file = file;
+        this.mapped = mapped;
+        this.directory = directory;
+    }
+
+    //----------------------------------------------------------
+    // Writing
+    //----------------------------------------------------------
+
+    /**
+     * Writes the supplied named sets into a store file.
+     *
+     * @param target the store file, overwritten if exists
+     * @param sets   named sets, written in the iteration order
+     * @throws IOException if an I/O error occurs
+     */
+    public static void write(File target, Map<String, ? extends IntSpan> sets) throws IOException {
+        List<String> names   = new ArrayList<>(sets.keySet());
+        List<byte[]> encoded = new ArrayList<>(names.size());
+
+        ByteArrayOutputStream header    = new ByteArrayOutputStream();
+        DataOutputStream      headerOut = new DataOutputStream(header);
+        headerOut.write(MAGIC);
+        headerOut.writeInt(VERSION);
+        headerOut.writeInt(names.size());
+
+        long offset = 0;
+        for ( String name : names ) {
+            IntSpan set   = sets.get(name);
+            byte[]  bytes = IntSpanCodec.encode(set.getEdges(), set.cardinality());
+            encoded.add(bytes);
+
+            byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            headerOut.writeInt(nameBytes.length);
+            headerOut.write(nameBytes);
+            headerOut.writeLong(offset);
+            headerOut.writeInt(bytes.length);
+            offset += bytes.length;
+        }
+        headerOut.flush();
+
+        if ( header.size() + offset > Integer.MAX_VALUE ) throw new IOException("IntSpanStore is limited to 2 GB");
+
+        try ( DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(target))) ) {
+            header.writeTo(out);
+            for ( byte[] bytes : encoded ) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    //----------------------------------------------------------
+    // Reading
+    //----------------------------------------------------------
+
+    /**
+     * Opens a store file and reads its directory. Sets are decoded on first access.
+     *
+     * @param source the store file
+     * @return the opened store
+     * @throws IOException if an I/O error occurs or the file isn't a store
+     */
+    public static IntSpanStore open(File source) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(source, "r");
+        try {
+            FileChannel channel = file.getChannel();
+            if ( channel.size() > Integer.MAX_VALUE ) throw new IOException("IntSpanStore is limited to 2 GB");
+
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            ByteBuffer buffer = mapped.duplicate();
+            byte[]     magic  = new byte[MAGIC.length];
+            if ( buffer.remaining() < MAGIC.length + 8 ) throw new IOException("Not an IntSpanStore file: " + source);
+            buffer.get(magic);
+            if ( !Arrays.equals(magic, MAGIC) ) throw new IOException("Not an IntSpanStore file: " + source);
+            if ( buffer.getInt() != VERSION ) throw new IOException("Unsupported IntSpanStore version: " + source);
+
+            // each entry takes ENTRY_BYTES besides the name, so corrupted counts and lengths are
+            // caught before they are allocated or read past the end
+            int count = buffer.getInt();
+            if ( count < 0 || count > buffer.remaining() / ENTRY_BYTES )
+                throw new IOException("Corrupted IntSpanStore file: " + source);
+
+            Map<String, long[]> directory = new LinkedHashMap<>();
+            for ( int i = 0; i < count; i++ ) {
+                int nameLength = buffer.getInt();
+                if ( nameLength < 0 || nameLength > buffer.remaining() - (ENTRY_BYTES - 4) )
+                    throw new IOException("Corrupted IntSpanStore file: " + source);
+
+                byte[] nameBytes = new byte[nameLength];
+                buffer.get(nameBytes);
+                String name   = new String(nameBytes, StandardCharsets.UTF_8);
+                long   offset = buffer.getLong();
+                int    length = buffer.getInt();
+                if ( offset < 0 || offset > Integer.MAX_VALUE || length < 0 )
+                    throw new IOException("Corrupted IntSpanStore file: " + source);
+                directory.put(name, new long[]{offset, length});
+            }
+
+            // offsets are relative to the end of the directory
+            int dataStart = buffer.position();
+            for ( long[] entry : directory.values() ) {
+                entry[0] += dataStart;
+                if ( entry[0] + entry[1] > mapped.limit() ) throw new IOException("Truncated IntSpanStore file: " + source);
+            }
+
+            return new IntSpanStore(file, mapped, directory);
+        } catch ( IOException | RuntimeException err ) {
+            file.close();
+            throw err;
+        }
+    }
+
+    /**
+     * Returns the names of all sets, in writing order.
+     *
+     * @return the names of all sets
+     */
+    public Set<String> names() {
+        return Collections.unmodifiableSet(directory.keySet());
+    }
+
+    /**
+     * Returns the number of sets.
+     *
+     * @return the number of sets
+     */
+    public int size() {
+        return directory.size();
+    }
+
+    /**
+     * Returns <tt>true</tt> if this store contains a set of the supplied name.
+     *
+     * @param name the name
+     * @return <tt>true</tt> if this store contains a set of the supplied name
+     */
+    public boolean contains(String name) {
+        return directory.containsKey(name);
+    }
+
+    /**
+     * Returns the set of the supplied name, decoding it on first access.
+     *
+     * @param name the name
+     * @return the frozen set, or <tt>null</tt> if there is no such set
+     * @throws AssertionError for corrupted data
+     */
+    public ImmutableIntSpan get(String name) throws AssertionError {
+        ImmutableIntSpan set = decoded.get(name);
+        if ( set != null ) {
+            return set;
+        }
+
+        long[] entry = directory.get(name);
+        if ( entry == null ) {
+            return null;
+        }
+
+        // each reader works on its own view of the mapped buffer
+        ByteBuffer buffer = mapped.duplicate();
+        buffer.position((int) entry[0]);
+        buffer.limit((int) (entry[0] + entry[1]));
+        set = new ImmutableIntSpan(IntSpanCodec.decode(buffer));
+
+        ImmutableIntSpan previous = decoded.putIfAbsent(name, set);
+        return previous != null ? previous : set;
+    }
+
+    /**
+     * Closes the file. The mapping itself is released when it's garbage collected, sets already
+     * decoded remain usable.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
@@ -0,0 +1,1356 @@
+/**
+ * <tt>LongSpan</tt> handles of sets containing long integer spans.
+ * <p>
+ * It's {@link IntSpan} for coordinate spaces beyond int, e.g. concatenated genomes. The
+ * representation is the same, a sorted list of edges in a HPPC LongArrayList, lower edges at even
+ * positions and upper edges (exclusive) at odd ones. So are the runlist syntax and the operations,
+ * with long elements, long cardinality and long infinity markers.
+ * <pre>
+ * LongSpan set = new LongSpan("1-10,5000000000-5000000010");
+ * set.cardinality();      // 21
+ * set.contains(5000000005L);
+ * </pre>
+ * Infinite sets may have more than Long.MAX_VALUE elements, cardinality() of them overflows like the
+ * one of <tt>IntSpan</tt> does.
+ *
+ * @author Qiang Wang
+ * @since 1.7
+ */
+
+package com.github.egateam;
+
+import com.carrotsearch.hppc.LongArrayList;
+
+import java.util.Arrays;
+
+@SuppressWarnings("WeakerAccess")
+public class LongSpan {
+    private static final String EMPTY_STRING = "-";
+
+    // Real Largest long is POS_INF - 1
+    private static final long POS_INF = Long.MAX_VALUE - 1; // LONG_MAX - 1
+    private static final long NEG_INF = Long.MIN_VALUE + 1; // LONG_MIN + 1
+
+    // HPPC LongArrayList (less memory than ArrayList<Long>)
+    private LongArrayList edges = new LongArrayList();
+
+    // Prefix sums of span sizes, ranks[i] is the number of elements before the i-th span.
+    // Built lazily by getRanks() and dropped by every mutation.
+    private long[] ranks;
+
+    //----------------------------------------------------------
+    // Constructors
+    //----------------------------------------------------------
+
+    /**
+     * Constructs an empty set.
+     */
+    public LongSpan() {
+    }
+
+    /**
+     * Constructs a set with a single elements.
+     *
+     * @param val a valid long integer
+     */
+    public LongSpan(long val) {
+        addPair(val, val);
+    }
+
+    /**
+     * Constructs a set with a pair of long integers constituting a range.
+     *
+     * @param lower lower boundary
+     * @param upper upper boundary ( upper must be larger than or equals to lower)
+     */
+    public LongSpan(long lower, long upper) {
+        addPair(lower, upper);
+    }
+
+    /**
+     * Constructs a set with all elements in Array.
+     *
+     * @param longs long integer array to add to this set
+     */
+    public LongSpan(long[] longs) {
+        add(longs);
+    }
+
+    /**
+     * Constructs a copy set of the supplied set.
+     *
+     * @param supplied the supplied set
+     */
+    public LongSpan(LongSpan supplied) {
+        edges = new LongArrayList(supplied.getEdges());
+    }
+
+    /**
+     * Constructs a set with elements of the supplied <tt>IntSpan</tt>.
+     *
+     * @param supplied the supplied set
+     */
+    public LongSpan(IntSpan supplied) {
+        int[] buffer = supplied.getEdges().buffer;
+        int   size   = supplied.edgeSize();
+
+        edges = new LongArrayList(size);
+        for ( int i = 0; i < size; i++ ) {
+            edges.add(buffer[i]);
+        }
+    }
+
+    /**
+     * Constructs a set from the runlist string.
+     *
+     * @param runlist LongSpan string presentation
+     */
+    public LongSpan(String runlist) {
+        add(runlist);
+    }
+
+    /**
+     * Constructs a set on the supplied edges, which are used directly without copying.
+     *
+     * @param edges valid edges
+     */
+    LongSpan(LongArrayList edges) {
+        this.edges = edges;
+    }
+
+    //----------------------------------------------------------
+    // Constants
+    //----------------------------------------------------------
+
+    /**
+     * Normally used in construction of infinite sets.
+     *
+     * @return positive infinity
+     */
+    public static long getPosInf() {
+        return POS_INF - 1;
+    }
+
+    /**
+     * Normally used in construction of infinite sets.
+     *
+     * @return negative infinity
+     */
+    public static long getNegInf() {
+        return NEG_INF;
+    }
+
+    /**
+     * Useless in common cases.
+     *
+     * @return empty string "-"
+     */
+    public static String getEmptyString() {
+        return EMPTY_STRING;
+    }
+
+    //----------------------------------------------------------
+    // Set contents
+    //----------------------------------------------------------
+
+    /**
+     * Clear all elements of this set.
+     *
+     * @return this set for method chaining
+     */
+    public LongSpan clear() {
+        edges = new LongArrayList();
+        ranks = null;
+
+        return this;
+    }
+
+    /**
+     * Returns the internal used ArrayList representing the set.
+     *
+     * @return the internal used ArrayList representing this set
+     */
+    LongArrayList getEdges() {
+        return edges;
+    }
+
+    /**
+     * Returns the number of edges.
+     *
+     * @return the number of edges
+     */
+    public int edgeSize() {
+        return edges.size();
+    }
+
+    /**
+     * Returns the number of spans.
+     *
+     * @return the number of spans
+     */
+    public int spanSize() {
+        return edgeSize() / 2;
+    }
+
+    /**
+     * Returns a string representation of this set.
+     *
+     * @return a string representation of this set
+     */
+    @Override
+    public String toString() {
+        if ( isEmpty() ) {
+            return EMPTY_STRING;
+        }
+
+        StringBuilder builder = new StringBuilder();
+        for ( int i = 0; i < edgeSize(); i += 2 ) {
+            long lower = edges.get(i);
+            long upper = edges.get(i + 1) - 1;
+
+            if ( i != 0 ) {
+                builder.append(',');
+            }
+            builder.append(lower);
+            if ( lower != upper ) {
+                builder.append('-').append(upper);
+            }
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Returns a long[] containing all elements of this set in ascending order.
+     *
+     * @return a long[] containing all elements of this set in ascending order
+     * @throws AssertionError if there are too many elements for an array
+     */
+    public long[] toArray() throws AssertionError {
+        long cardinality = cardinality();
+        if ( cardinality < 0 || cardinality > Integer.MAX_VALUE - 8 ) {
+            throw new AssertionError(String.format("Too many elements: %s", Long.toString(cardinality)));
+        }
+
+        long[] elements = new long[(int) cardinality];
+
+        int k = 0;
+        for ( int i = 0; i < spanSize(); i++ ) {
+            long lower = edges.get(i * 2);
+            long upper = edges.get(i * 2 + 1) - 1;
+
+            for ( long val = lower; val <= upper; val++ ) {
+                elements[k++] = val;
+            }
+        }
+
+        return elements;
+    }
+
+    /**
+     * Returns the runs in this set, as a list of (lower, upper)
+     *
+     * @return the runs in this set, as a list of (lower, upper)
+     */
+    public LongArrayList ranges() {
+        LongArrayList ranges = edges.clone();
+
+        for ( int i = 0; i < ranges.size(); i++ ) {
+            // odd index means upper
+            if ( (i & 1) == 1 ) {
+                ranges.set(i, ranges.get(i) - 1);
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Returns a new <tt>IntSpan</tt> with the same elements.
+     *
+     * @return a new set
+     * @throws AssertionError if any element is out of [IntSpan.getNegInf(), IntSpan.getPosInf()]
+     */
+    public IntSpan toIntSpan() throws AssertionError {
+        IntSpan newSet = new IntSpan();
+        if ( isEmpty() ) {
+            return newSet;
+        }
+        if ( min() < IntSpan.getNegInf() || max() > IntSpan.getPosInf() ) {
+            throw new AssertionError(String.format("Out of int range: %s", toString()));
+        }
+
+        for ( int i = 0; i < edgeSize(); i++ ) {
+            newSet.getEdges().add((int) edges.get(i));
+        }
+
+        return newSet;
+    }
+
+    //----------------------------------------------------------
+    // Set cardinality
+    //----------------------------------------------------------
+
+    /**
+     * Returns the number of elements in this set.
+     *
+     * @return the number of elements in this set
+     */
+    public long cardinality() {
+        long[] ranks = getRanks();
+
+        return ranks[ranks.length - 1];
+    }
+
+    /**
+     * Returns <tt>true</tt> if this set contains no elements.
+     *
+     * @return <tt>true</tt> if this set contains no elements
+     */
+    public boolean isEmpty() {
+        return edgeSize() == 0;
+    }
+
+    /**
+     * Returns <tt>true</tt> if this set is not empty.
+     *
+     * @return <tt>true</tt> if this set is not empty
+     */
+    public boolean isNotEmpty() {
+        return !isEmpty();
+    }
+
+    /**
+     * Returns <tt>true</tt> if this set is negative infinite.
+     *
+     * @return <tt>true</tt> if this set is negative infinite
+     */
+    public boolean isNegInf() {
+        return isNotEmpty() && edges.get(0) == NEG_INF;
+    }
+
+    /**
+     * Returns <tt>true</tt> if this set is positive infinite.
+     *
+     * @return <tt>true</tt> if this set is positive infinite
+     */
+    public boolean isPosInf() {
+        return isNotEmpty() && edges.get(edges.size() - 1) == POS_INF;
+    }
+
+    /**
+     * Returns <tt>true</tt> if this set is infinite.
+     *
+     * @return <tt>true</tt> if this set is infinite
+     */
+    public boolean isInfinite() {
+        return isNegInf() || isPosInf();
+    }
+
+    /**
+     * Returns <tt>true</tt> if this set is finite.
+     *
+     * @return <tt>true</tt> if this set is finite
+     */
+    public boolean isFinite() {
+        return !isInfinite();
+    }
+
+    /**
+     * Returns <tt>true</tt> if this set contains all long integers.
+     *
+     * @return <tt>true</tt> if this set contains all long integers
+     */
+    public boolean isUniversal() {
+        return edgeSize() == 2 && isNegInf() && isPosInf();
+    }
+
+    //----------------------------------------------------------
+    // Membership test
+    //----------------------------------------------------------
+
+    /**
+     * Returns <tt>true</tt> if this set contains all of the specified numbers.
+     *
+     * @param longs the specified numbers
+     * @return <tt>true</tt> if this set contains all of the specified numbers
+     */
+    public boolean containsAll(long[] longs) {
+        for ( long n : longs ) {
+            if ( !contains(n) ) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns <tt>true</tt> if this set contains the specified number.
+     *
+     * @param n the specified number
+     * @return <tt>true</tt> if this set contains the specified number
+     */
+    public boolean contains(long n) {
+        if ( n >= POS_INF ) {
+            return false; // n + 1 may overflow
+        }
+
+        int pos = findPos(n + 1, 0);
+        return (pos & 1) == 1;
+    }
+
+    /**
+     * Returns <tt>true</tt> if this set contains any of the specified numbers.
+     *
+     * @param longs the specified numbers
+     * @return <tt>true</tt> if this set contains any of the specified numbers
+     */
+    public boolean containsAny(long[] longs) {
+        for ( long n : longs ) {
+            if ( contains(n) ) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    //----------------------------------------------------------
+    // Member operations (mutate original set)
+    //----------------------------------------------------------
+
+    /**
+     * Adds a pair of inclusive long integers to this set.
+     * <p>
+     * A pair of long integers constitute a range.
+     *
+     * @param lower lower boundary
+     * @param upper upper boundary ( upper must be larger than or equals to lower)
+     * @return this set for method chaining
+     */
+    public LongSpan addPair(long lower, long upper) throws AssertionError {
+        upper++;
+
+        if ( lower > upper )
+            throw new AssertionError(String.format("Bad order: %s,%s", Long.toString(lower), Long.toString(upper)));
+
+        int lowerPos = findPos(lower, 0);
+        int upperPos = findPos(upper + 1, lowerPos);
+
+        if ( (lowerPos & 1) == 1 ) {
+            lower = edges.get(--lowerPos);
+        }
+        if ( (upperPos & 1) == 1 ) {
+            upper = edges.get(upperPos++);
+        }
+
+        edges.removeRange(lowerPos, upperPos);
+        edges.insert(lowerPos, lower);
+        edges.insert(lowerPos + 1, upper);
+        ranks = null;
+
+        return this;
+    }
+
+    /**
+     * Adds the inclusive range of long integers to this set.
+     * <p>
+     * Multiple ranges may be specified. Each pair of long integers constitute a range.
+     *
+     * @param ranges the inclusive ranges of long integers (ranges.size() must be even)
+     * @return this set for method chaining
+     */
+    public LongSpan addRange(LongArrayList ranges) throws AssertionError {
+        if ( ranges.size() % 2 != 0 ) throw new AssertionError("Number of ranges must be even");
+
+        if ( !ranges.isEmpty() ) {
+            addEdges(rangesToEdges(ranges));
+        }
+
+        return this;
+    }
+
+    /**
+     * Merges the members of the supplied set into this set.
+     *
+     * @param supplied the supplied set
+     * @return this set for method chaining
+     */
+    public LongSpan merge(LongSpan supplied) {
+        edges = sweep(edges, supplied.getEdges(), IntSpan.OP_UNION);
+        ranks = null;
+
+        return this;
+    }
+
+    public LongSpan add(long n) {
+        addPair(n, n);
+
+        return this;
+    }
+
+    public LongSpan add(long[] array) {
+        LongArrayList ranges = listToRanges(array);
+        addRange(ranges);
+
+        return this;
+    }
+
+    public LongSpan add(LongSpan supplied) {
+        merge(supplied);
+
+        return this;
+    }
+
+    public LongSpan add(String runlist) {
+        addEdges(parseRunlist(runlist));
+
+        return this;
+    }
+
+    /**
+     * Complement this set.
+     * <p>
+     * As <tt>IntSpan</tt>, inverting the empty set makes it contain all the long integers between
+     * NEG_INF and POS_INF inclusive.
+     *
+     * @return this set for method chaining
+     */
+    public LongSpan invert() {
+        if ( isEmpty() ) {
+            // Universal set
+            edges = new LongArrayList();
+            edges.add(NEG_INF, POS_INF);
+        } else {
+            // Either add or remove infinity from each end. The net effect is always an even number
+            // of additions and deletions
+
+            if ( isNegInf() ) {
+                edges.remove(0); // shift
+            } else {
+                edges.insert(0, NEG_INF); // unshift
+            }
+
+            if ( isPosInf() ) {
+                edges.remove(edges.size() - 1); // pop
+            } else {
+                edges.add(POS_INF); // push
+            }
+        }
+        ranks = null;
+
+        return this;
+    }
+
+    /**
+     * Removes a pair of inclusive long integers from this set.
+     *
+     * @param lower lower boundary
+     * @param upper upper boundary ( upper must be larger than or equals to lower)
+     * @return this set for method chaining
+     */
+    public LongSpan removePair(long lower, long upper) {
+        invert();
+        addPair(lower, upper);
+        invert();
+
+        return this;
+    }
+
+    /**
+     * Removes the inclusive range of long integers from this set.
+     * <p>
+     * Multiple ranges may be specified. Each pair of long integers constitute a range.
+     *
+     * @param ranges the inclusive ranges of long integers (ranges.size() must be even)
+     * @return this set for method chaining
+     */
+    public LongSpan removeRange(LongArrayList ranges) throws AssertionError {
+        if ( ranges.size() % 2 != 0 ) throw new AssertionError("Number of ranges must be even");
+
+        if ( !ranges.isEmpty() ) {
+            removeEdges(rangesToEdges(ranges));
+        }
+
+        return this;
+    }
+
+    /**
+     * Subtracts the members of the supplied set out of this set.
+     *
+     * @param supplied the supplied set
+     * @return this set for method chaining
+     */
+    public LongSpan subtract(LongSpan supplied) {
+        edges = sweep(edges, supplied.getEdges(), IntSpan.OP_DIFF);
+        ranks = null;
+
+        return this;
+    }
+
+    public LongSpan remove(long n) {
+        removePair(n, n);
+
+        return this;
+    }
+
+    public LongSpan remove(long[] longs) {
+        LongArrayList ranges = listToRanges(longs);
+        removeRange(ranges);
+
+        return this;
+    }
+
+    public LongSpan remove(LongSpan supplied) {
+        subtract(supplied);
+
+        return this;
+    }
+
+    public LongSpan remove(String runlist) {
+        removeEdges(parseRunlist(runlist));
+
+        return this;
+    }
+
+    //----------------------------------------------------------
+    // Set binary operations ( create new set)
+    //----------------------------------------------------------
+
+    /**
+     * Returns an identical copy of this <tt>LongSpan</tt> instance.
+     *
+     * @return a copy of this <tt>LongSpan</tt> instance
+     */
+    public LongSpan copy() {
+        return new LongSpan(edges.clone());
+    }
+
+    /**
+     * Returns a new set that is the union of this set and the supplied set.
+     *
+     * @param supplied set to be operated with this set
+     * @return the union of this set and the supplied set
+     */
+    public LongSpan union(LongSpan supplied) {
+        return new LongSpan(sweep(edges, supplied.getEdges(), IntSpan.OP_UNION));
+    }
+
+    /**
+     * Returns a new set that is the absolute complement of this set.
+     *
+     * @return the absolute complement of this set
+     */
+    public LongSpan complement() {
+        LongSpan newSet = new LongSpan(this);
+        newSet.invert();
+
+        return newSet;
+    }
+
+    /**
+     * Returns a new set of elements in this set, but not in the supplied set.
+     *
+     * @param supplied set to be operated with this set
+     * @return the relative complement of the supplied set in this set
+     */
+    public LongSpan diff(LongSpan supplied) {
+        return new LongSpan(sweep(edges, supplied.getEdges(), IntSpan.OP_DIFF));
+    }
+
+    /**
+     * Returns a new set that is the intersection of this set and the supplied set.
+     *
+     * @param supplied set to be operated with this set
+     * @return the intersection of this set and the supplied set
+     */
+    public LongSpan intersect(LongSpan supplied) {
+        return new LongSpan(sweep(edges, supplied.getEdges(), IntSpan.OP_INTERSECT));
+    }
+
+    /**
+     * Return a new set that contains all of the members that are in this set or the supplied set
+     * but not both.
+     *
+     * @param supplied set to be operated
+     * @return a new set that contains all of the members that are in this set or the supplied set
+     * but not both
+     */
+    public LongSpan xor(LongSpan supplied) {
+        return new LongSpan(sweep(edges, supplied.getEdges(), IntSpan.OP_XOR));
+    }
+
+    //----------------------------------------------------------
+    // Set relations
+    //----------------------------------------------------------
+
+    /**
+     * Returns <tt>true</tt> if this set and the supplied set contain the same elements.
+     *
+     * @param supplied set to be compared
+     * @return <tt>true</tt> if this set and the supplied set contain the same elements
+     */
+    public boolean equals(LongSpan supplied) {
+        return edges.equals(supplied.getEdges());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof LongSpan && equals((LongSpan) obj);
+    }
+
+    @Override
+    public int hashCode() {
+        long[] buffer = edges.buffer;
+        int    hash   = 1;
+
+        for ( int i = 0; i < edgeSize(); i++ ) {
+            hash = 31 * hash + (int) (buffer[i] ^ (buffer[i] >>> 32));
+        }
+
+        return hash;
+    }
+
+    /**
+     * Returns <tt>true</tt> if this set is a subset of the supplied set.
+     *
+     * @param supplied set to be compared
+     * @return <tt>true</tt> if this set is a subset of the supplied set
+     */
+    public boolean subset(LongSpan supplied) {
+        long[] a     = edges.buffer;
+        int    sizeA = edgeSize();
+        long[] b     = supplied.getEdges().buffer;
+        int    sizeB = supplied.edgeSize();
+
+        int pos = 0;
+        for ( int i = 0; i < sizeA; i += 2 ) {
+            // the span of supplied containing lower must also reach upper
+            pos = findPos(b, sizeB, a[i] + 1, pos);
+            if ( (pos & 1) != 1 || a[i + 1] > b[pos] ) {
+                return false;
+            }
+            pos--;
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns <tt>true</tt> if this set is a superset of the supplied set.
+     *
+     * @param supplied set to be compared
+     * @return <tt>true</tt> if this set is a superset of the supplied set
+     */
+    public boolean superset(LongSpan supplied) {
+        return supplied.subset(this);
+    }
+
+    /**
+     * Returns <tt>true</tt> if this set and the supplied set have at least one element in common.
+     *
+     * @param supplied set to be compared
+     * @return <tt>true</tt> if this set and the supplied set have at least one element in common
+     */
+    public boolean overlaps(LongSpan supplied) {
+        return overlaps(edges, supplied.getEdges(), 0);
+    }
+
+    /**
+     * Returns <tt>true</tt> if this set and the supplied set have no elements in common.
+     *
+     * @param supplied set to be compared
+     * @return <tt>true</tt> if this set and the supplied set have no elements in common
+     */
+    public boolean disjoint(LongSpan supplied) {
+        return !overlaps(supplied);
+    }
+
+    /**
+     * Returns <tt>true</tt> if this set and the supplied set overlap or are adjacent.
+     *
+     * @param supplied set to be compared
+     * @return <tt>true</tt> if this set and the supplied set overlap or are adjacent
+     */
+    public boolean touches(LongSpan supplied) {
+        return overlaps(edges, supplied.getEdges(), 1);
+    }
+
+    //----------------------------------------------------------
+    // Extrema
+    //----------------------------------------------------------
+
+    /**
+     * Returns the smallest element of this set (can't be empty).
+     *
+     * @return the smallest element of this set
+     * @throws AssertionError for empty LongSpan
+     */
+    public long min() throws AssertionError {
+        if ( isEmpty() ) throw new AssertionError("Can't get extrema for empty LongSpan");
+        return edges.get(0);
+    }
+
+    /**
+     * Returns the largest element of this set (can't be empty).
+     *
+     * @return the largest element of this set
+     * @throws AssertionError for empty LongSpan
+     */
+    public long max() throws AssertionError {
+        if ( isEmpty() ) throw new AssertionError("Can't get extrema for empty LongSpan");
+        return edges.get(edges.size() - 1) - 1;
+    }
+
+    //----------------------------------------------------------
+    // Indexing
+    //----------------------------------------------------------
+
+    /**
+     * Returns the (index)th element of set, index start from "1".
+     * <p>
+     * Negative indices count backwards from the end of the set.
+     *
+     * @param index index in this set
+     * @return the (index)th element of set
+     * @throws AssertionError for empty LongSpan and invalid index
+     */
+    public long at(long index) throws AssertionError {
+        if ( isEmpty() ) throw new AssertionError("Indexing on an empty set");
+        if ( index == 0 ) throw new AssertionError("Index start from 1");
+        if ( Math.abs(index) > cardinality() ) throw new AssertionError("Out of max index");
+
+        if ( index < 0 ) {
+            index = cardinality() + index + 1;
+        }
+
+        int i = spanOfIndex(index);
+
+        return edges.get(i * 2) + index - ranks[i] - 1;
+    }
+
+    /**
+     * Returns the index of an element in this set, index start from "1"
+     *
+     * @param element the element
+     * @return the index of an element in this set
+     * @throws AssertionError for empty LongSpan and invalid index
+     */
+    public long index(long element) throws AssertionError {
+        if ( isEmpty() ) throw new AssertionError("Indexing on an empty set");
+        if ( !contains(element) ) throw new AssertionError("Element doesn't exist");
+
+        int i = findPos(element + 1, 0) / 2;
+
+        return getRanks()[i] + element - edges.get(i * 2) + 1;
+    }
+
+    /**
+     * Returns a new set containing the (from)th to the (to)th elements of this set, index start
+     * from "1".
+     * <p>
+     * Indexes larger than cardinality() are clipped to it.
+     *
+     * @param from index of the first element
+     * @param to   index of the last element
+     * @return a new set containing elements between the two indexes
+     * @throws AssertionError for invalid index
+     */
+    public LongSpan slice(long from, long to) throws AssertionError {
+        if ( from < 1 ) throw new AssertionError("Index start from 1");
+
+        if ( from > to || from > cardinality() ) {
+            return new LongSpan();
+        }
+        if ( to > cardinality() ) {
+            to = cardinality();
+        }
+
+        int first = spanOfIndex(from);
+        int last  = spanOfIndex(to);
+
+        LongArrayList newEdges = new LongArrayList((last - first + 1) * 2);
+        newEdges.add(edges.buffer, first * 2, (last - first + 1) * 2);
+        newEdges.set(0, edges.get(first * 2) + from - ranks[first] - 1);
+        newEdges.set(newEdges.size() - 1, edges.get(last * 2) + to - ranks[last]);
+
+        return new LongSpan(newEdges);
+    }
+
+    //----------------------------------------------------------
+    // Spans operations
+    //----------------------------------------------------------
+
+    /**
+     * Returns a set consisting of a single span from set.min() to set.max().
+     *
+     * @return a set consisting of a single span from set.min() to set.max()
+     */
+    public LongSpan cover() {
+        LongSpan newSet = new LongSpan();
+        if ( isNotEmpty() ) {
+            newSet.addPair(min(), max());
+        }
+        return newSet;
+    }
+
+    /**
+     * Returns a set containing all the holes in this set, that is, all the long integers that are
+     * in-between spans of this set.
+     *
+     * @return a set containing all the holes in this set
+     */
+    public LongSpan holes() {
+        LongArrayList newEdges = new LongArrayList();
+
+        // the inner edges, between the first lower edge and the last upper one
+        for ( int i = 1; i + 1 < edgeSize(); i++ ) {
+            newEdges.add(edges.get(i));
+        }
+
+        return new LongSpan(newEdges);
+    }
+
+    /**
+     * Returns a set constructed by removing n long integers from each end of each span of this set.
+     * If n is negative, then -n long integers are added to each end of each span.
+     *
+     * @param n long integer
+     * @return a set constructed by removing n long integers from each end of each span of this set
+     */
+    public LongSpan inset(long n) {
+        LongSpan newSet = new LongSpan();
+
+        for ( int i = 0; i < spanSize(); i++ ) {
+            long lower = edges.get(i * 2);
+            long upper = edges.get(i * 2 + 1) - 1;
+
+            if ( lower != getNegInf() ) {
+                lower += n;
+            }
+            if ( upper != getPosInf() ) {
+                upper -= n;
+            }
+
+            if ( lower <= upper ) {
+                newSet.addPair(lower, upper);
+            }
+        }
+
+        return newSet;
+    }
+
+    /**
+     * trim is provided as a synonym for inset.
+     *
+     * @param n long integer
+     * @return a set
+     */
+    public LongSpan trim(long n) {
+        return inset(n);
+    }
+
+    /**
+     * set.pad(n) is the same as set.inset(-n).
+     *
+     * @param n long integer
+     * @return a set
+     */
+    public LongSpan pad(long n) {
+        return inset(-n);
+    }
+
+    /**
+     * Removes all spans within this <strong>smaller than</strong> minLength
+     *
+     * @param minLength long integer
+     * @return a new set
+     */
+    public LongSpan excise(long minLength) {
+        LongArrayList newEdges = new LongArrayList();
+
+        for ( int i = 0; i < edgeSize(); i += 2 ) {
+            if ( edges.get(i + 1) - edges.get(i) >= minLength ) {
+                newEdges.add(edges.get(i), edges.get(i + 1));
+            }
+        }
+
+        return new LongSpan(newEdges);
+    }
+
+    /**
+     * Fills in all holes in this set <strong>smaller than or equals to </strong> maxLength
+     *
+     * @param maxLength long integer
+     * @return a new set
+     */
+    public LongSpan fill(long maxLength) {
+        LongArrayList newEdges = new LongArrayList(edgeSize());
+
+        for ( int i = 0; i < edgeSize(); i += 2 ) {
+            int size = newEdges.size();
+            if ( size > 0 && edges.get(i) - newEdges.get(size - 1) <= maxLength ) {
+                // a short hole, extend the last span
+                newEdges.set(size - 1, edges.get(i + 1));
+            } else {
+                newEdges.add(edges.get(i), edges.get(i + 1));
+            }
+        }
+
+        return new LongSpan(newEdges);
+    }
+
+    //----------------------------------------------------------
+    // Private methods
+    //----------------------------------------------------------
+
+    private static LongArrayList listToRanges(long[] longs) {
+        Arrays.sort(longs);
+
+        LongArrayList ranges = new LongArrayList();
+
+        int len = longs.length;
+        int pos = 0;
+
+        while ( pos < longs.length ) {
+            int end = pos + 1;
+            while ( (end < len) && (longs[end] <= longs[end - 1] + 1) ) {
+                end++;
+            }
+            ranges.add(longs[pos], longs[end - 1]);
+            pos = end;
+        }
+
+        return ranges;
+    }
+
+    /**
+     * Parses the runlist into edges. Runs may be unsorted and overlapping, whitespaces are
+     * ignored.
+     *
+     * @param runlist LongSpan string presentation
+     * @return edges in the runlist
+     * @throws AssertionError for malformed runlist
+     */
+    private static LongArrayList parseRunlist(String runlist) throws AssertionError {
+        LongArrayList ranges = new LongArrayList();
+
+        String stripped = runlist.replaceAll("\\s", "");
+        if ( stripped.isEmpty() || stripped.equals(EMPTY_STRING) ) {
+            return ranges;
+        }
+
+        for ( String run : stripped.split(",", -1) ) {
+            // a '-' after the first character separates lower and upper
+            int sep = run.indexOf('-', 1);
+            try {
+                if ( sep < 0 ) {
+                    long val = Long.parseLong(run);
+                    ranges.add(val, val);
+                } else {
+                    ranges.add(Long.parseLong(run.substring(0, sep)), Long.parseLong(run.substring(sep + 1)));
+                }
+            } catch ( NumberFormatException e ) {
+                throw new AssertionError(String.format("Bad runlist: unexpected '%s'", run));
+            }
+        }
+
+        return rangesToEdges(ranges);
+    }
+
+    /**
+     * Merges valid edges into this set.
+     *
+     * @param newEdges valid edges, used directly when this set is empty
+     */
+    private void addEdges(LongArrayList newEdges) {
+        if ( newEdges.isEmpty() ) {
+            return;
+        }
+
+        // When this LongSpan is empty, just take the supplied edges
+        edges = isEmpty() ? newEdges : sweep(edges, newEdges, IntSpan.OP_UNION);
+        ranks = null;
+    }
+
+    /**
+     * Removes valid edges from this set.
+     *
+     * @param oldEdges valid edges
+     */
+    private void removeEdges(LongArrayList oldEdges) {
+        if ( isEmpty() || oldEdges.isEmpty() ) {
+            return;
+        }
+
+        edges = sweep(edges, oldEdges, IntSpan.OP_DIFF);
+        ranks = null;
+    }
+
+    /**
+     * Converts the inclusive ranges to edges, normalizing unsorted or overlapping ones.
+     *
+     * @param ranges the inclusive ranges of long integers (ranges.size() must be even)
+     * @return edges representing the ranges
+     * @throws AssertionError for a range with upper smaller than lower
+     */
+    private static LongArrayList rangesToEdges(LongArrayList ranges) throws AssertionError {
+        long[] buffer = ranges.buffer;
+        int    size   = ranges.size();
+
+        LongArrayList newEdges = new LongArrayList(size);
+        long[]        out      = newEdges.buffer;
+
+        boolean sorted = true;
+        for ( int i = 0; i < size; i += 2 ) {
+            // checked after the increment, so Long.MAX_VALUE can't wrap into a valid range
+            long upper = buffer[i + 1] + 1;
+            if ( buffer[i] > upper )
+                throw new AssertionError(String.format("Bad order: %s,%s", Long.toString(buffer[i]), Long.toString(upper)));
+            if ( i > 0 && buffer[i] <= buffer[i - 1] + 1 ) {
+                sorted = false;
+            }
+
+            out[i] = buffer[i];
+            out[i + 1] = upper;
+        }
+        newEdges.elementsCount = size;
+
+        if ( !sorted ) {
+            normalizeEdges(newEdges);
+        }
+
+        return newEdges;
+    }
+
+    /**
+     * Sorts and coalesces the pairs of (lower, upper + 1) in place, making them valid edges.
+     * <p>
+     * A pair of longs can't be packed into one long like <tt>IntSpan</tt> does, so lower and upper
+     * edges are sorted separately, the union of spans is where more spans have started than ended.
+     *
+     * @param rawEdges pairs of edges, may be unsorted, overlapping or adjacent
+     */
+    static void normalizeEdges(LongArrayList rawEdges) {
+        long[] buffer = rawEdges.buffer;
+        int    count  = rawEdges.size() / 2;
+
+        long[] lowers = new long[count];
+        long[] uppers = new long[count];
+        for ( int i = 0; i < count; i++ ) {
+            lowers[i] = buffer[i * 2];
+            uppers[i] = buffer[i * 2 + 1];
+        }
+        Arrays.sort(lowers);
+        Arrays.sort(uppers);
+
+        int k = 0, i = 0, j = 0, depth = 0;
+        while ( i < count ) {
+            // lower edges go first, so adjacent spans are coalesced
+            if ( lowers[i] <= uppers[j] ) {
+                if ( depth++ == 0 ) {
+                    buffer[k++] = lowers[i];
+                }
+                i++;
+            } else {
+                if ( --depth == 0 ) {
+                    buffer[k++] = uppers[j];
+                }
+                j++;
+            }
+        }
+        if ( count > 0 ) {
+            buffer[k++] = uppers[count - 1];
+        }
+        rawEdges.elementsCount = k;
+    }
+
+    /**
+     * The linear merge engine of binary operations, see <tt>IntSpan.sweep()</tt>.
+     *
+     * @param edgesA edges of the first set
+     * @param edgesB edges of the second set
+     * @param op     one of IntSpan.OP_UNION, OP_INTERSECT, OP_DIFF and OP_XOR
+     * @return edges of the resulting set
+     */
+    private static LongArrayList sweep(LongArrayList edgesA, LongArrayList edgesB, int op) {
+        long[] a     = edgesA.buffer;
+        int    sizeA = edgesA.size();
+        long[] b     = edgesB.buffer;
+        int    sizeB = edgesB.size();
+
+        LongArrayList result = new LongArrayList(sizeA + sizeB);
+        long[]        out    = result.buffer;
+
+        boolean inA = false, inB = false, inR = false;
+
+        int i = 0, j = 0, k = 0;
+        while ( i < sizeA || j < sizeB ) {
+            // nothing left to contribute
+            if ( i == sizeA && (op == IntSpan.OP_INTERSECT || op == IntSpan.OP_DIFF) ) break;
+            if ( j == sizeB && op == IntSpan.OP_INTERSECT ) break;
+
+            // Long.MAX_VALUE is larger than any valid edge (POS_INF)
+            long valA = i < sizeA ? a[i] : Long.MAX_VALUE;
+            long valB = j < sizeB ? b[j] : Long.MAX_VALUE;
+            long val  = Math.min(valA, valB);
+
+            if ( valA == val ) {
+                inA = !inA;
+                i++;
+            }
+            if ( valB == val ) {
+                inB = !inB;
+                j++;
+            }
+
+            boolean inNew = isIn(op, inA, inB);
+            if ( inNew != inR ) {
+                out[k++] = val;
+                inR = inNew;
+            }
+        }
+        result.elementsCount = k;
+
+        return result;
+    }
+
+    private static boolean isIn(int op, boolean inA, boolean inB) {
+        switch ( op ) {
+            case IntSpan.OP_UNION:
+                return inA || inB;
+            case IntSpan.OP_INTERSECT:
+                return inA && inB;
+            case IntSpan.OP_DIFF:
+                return inA && !inB;
+            default:
+                return inA != inB;
+        }
+    }
+
+    /**
+     * Returns the prefix sums of span sizes, built on the first call after a mutation.
+     *
+     * @return the prefix sums of span sizes
+     */
+    private long[] getRanks() {
+        if ( ranks == null ) {
+            int    spanSize = spanSize();
+            long[] newRanks = new long[spanSize + 1];
+
+            for ( int i = 0; i < spanSize; i++ ) {
+                newRanks[i + 1] = newRanks[i] + edges.get(i * 2 + 1) - edges.get(i * 2);
+            }
+            ranks = newRanks;
+        }
+
+        return ranks;
+    }
+
+    /**
+     * Returns the number of the span containing the (index)th element, index start from "1".
+     *
+     * @param index a valid positive index
+     * @return the number of the span, start from "0"
+     */
+    private int spanOfIndex(long index) {
+        long[] ranks = getRanks();
+        int    pos   = Arrays.binarySearch(ranks, index);
+
+        // ranks[pos] == index means the last element of the previous span
+        return pos >= 0 ? pos - 1 : -pos - 2;
+    }
+
+    /**
+     * Returns <tt>true</tt> if any span of one edge list, widened by ext at both ends, overlaps
+     * the other edge list.
+     */
+    private static boolean overlaps(LongArrayList edgesA, LongArrayList edgesB, int ext) {
+        if ( edgesA.size() > edgesB.size() ) {
+            LongArrayList tmp = edgesA;
+            edgesA = edgesB;
+            edgesB = tmp;
+        }
+
+        long[] a     = edgesA.buffer;
+        int    sizeA = edgesA.size();
+        long[] b     = edgesB.buffer;
+        int    sizeB = edgesB.size();
+
+        int pos = 0;
+        for ( int i = 0; i < sizeA && pos < sizeB; i += 2 ) {
+            long lower = a[i] - ext;
+            long upper = a[i + 1] + ext;
+
+            // lower is in supplied, or the next span of supplied starts before upper
+            pos = findPos(b, sizeB, lower + 1, pos);
+            if ( (pos & 1) == 1 || (pos < sizeB && b[pos] < upper) ) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Return the index of the first element >= the supplied value.
+     * <p>
+     * If (pos & 1) == 1, i.e. pos is odd number, val is in the set
+     *
+     * @param val supplied value
+     * @param low start value
+     * @return the index of the first element >= the supplied value.
+     */
+    private int findPos(long val, int low) {
+        return findPos(edges.buffer, edgeSize(), val, low);
+    }
+
+    private static int findPos(long[] edges, int size, long val, int low) {
+        int high = size;
+
+        while ( low < high ) {
+            int mid = (low + high) >>> 1;
+            if ( val < edges[mid] ) {
+                high = mid;
+            } else if ( val > edges[mid] ) {
+                low = mid + 1;
+            } else {
+                return mid;
+            }
+        }
+
+        return low;
+    }
+
+    //----------------------------------------------------------
+    // Aliases
+    //----------------------------------------------------------
+
+    public long size() {
+        return cardinality();
+    }
+
+    public long count() {
+        return cardinality();
+    }
+
+    public String runlist() {
+        return toString();
+    }
+
+    public long[] elements() {
+        return toArray();
+    }
+
+    public boolean equal(LongSpan supplied) {
+        return equals(supplied);
+    }
+
+    public LongSpan intersection(LongSpan supplied) {
+        return intersect(supplied);
+    }
+
+    public boolean intersects(LongSpan supplied) {
+        return overlaps(supplied);
+    }
+}
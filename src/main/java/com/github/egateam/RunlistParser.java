@@ -0,0 +1,246 @@
+/**
+ * <tt>RunlistParser</tt> turns runlist characters into edges in one pass.
+ * <p>
+ * Characters are fed one by one with accept(), so any source (CharSequence, Reader, bytes) can be
+ * parsed without building an intermediate String or a list of ranges. Whitespaces are ignored.
+ * Runs out of order are allowed, and the edges are normalized by finish() only when needed.
+ *
+ * @author Qiang Wang
+ * @since 1.7
+ */
+
+package com.github.egateam;
+
+import com.carrotsearch.hppc.IntArrayList;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+
+final class RunlistParser {
+    // States of the parser
+    private static final int RUN_START    = 0; // expect '-' or digits of lower
+    private static final int LOWER_SIGN   = 1; // after the sign of lower
+    private static final int LOWER_DIGITS = 2;
+    private static final int UPPER_START  = 3; // after '-' separating lower and upper
+    private static final int UPPER_SIGN   = 4;
+    private static final int UPPER_DIGITS = 5;
+
+    private final IntArrayList edges = new IntArrayList();
+
+    private int     state  = RUN_START;
+    private int     count  = 0; // number of characters accepted, except whitespaces
+    private boolean sorted = true;
+
+    // Integer.parseInt() say this:
+    // Accumulating negatively avoids surprises near MAX_VALUE
+    private int     lower;
+    private int     upper;
+    private boolean lowerNeg;
+    private boolean upperNeg;
+
+    /**
+     * Parses a part of the supplied runlist.
+     *
+     * @param runlist IntSpan string presentation
+     * @param start   the start index, inclusive
+     * @param end     the end index, exclusive
+     * @return edges in the runlist
+     * @throws AssertionError for malformed runlist
+     */
+    static IntArrayList parse(CharSequence runlist, int start, int end) throws AssertionError {
+        RunlistParser parser = new RunlistParser();
+        for ( int i = start; i < end; i++ ) {
+            parser.accept(runlist.charAt(i));
+        }
+
+        return parser.finish();
+    }
+
+    /**
+     * Parses a part of the supplied ASCII bytes.
+     *
+     * @param bytes  IntSpan string presentation in ASCII
+     * @param offset the start index, inclusive
+     * @param length number of bytes to parse
+     * @return edges in the runlist
+     * @throws AssertionError for malformed runlist
+     */
+    static IntArrayList parse(byte[] bytes, int offset, int length) throws AssertionError {
+        RunlistParser parser = new RunlistParser();
+        for ( int i = offset; i < offset + length; i++ ) {
+            parser.accept((char) bytes[i]);
+        }
+
+        return parser.finish();
+    }
+
+    /**
+     * Parses the remaining ASCII bytes of the supplied buffer, which is consumed to its limit.
+     *
+     * @param buffer IntSpan string presentation in ASCII
+     * @return edges in the runlist
+     * @throws AssertionError for malformed runlist
+     */
+    static IntArrayList parse(ByteBuffer buffer) throws AssertionError {
+        RunlistParser parser = new RunlistParser();
+        while ( buffer.hasRemaining() ) {
+            parser.accept((char) buffer.get());
+        }
+
+        return parser.finish();
+    }
+
+    /**
+     * Parses all characters from the supplied reader.
+     *
+     * @param reader IntSpan string presentation
+     * @return edges in the runlist
+     * @throws IOException    if an I/O error occurs
+     * @throws AssertionError for malformed runlist
+     */
+    static IntArrayList parse(Reader reader) throws IOException, AssertionError {
+        RunlistParser parser = new RunlistParser();
+        char[]        buf    = new char[8192];
+
+        int n;
+        while ( (n = reader.read(buf)) != -1 ) {
+            for ( int i = 0; i < n; i++ ) {
+                parser.accept(buf[i]);
+            }
+        }
+
+        return parser.finish();
+    }
+
+    /**
+     * Feeds one character of the runlist.
+     *
+     * @param ch the character
+     * @throws AssertionError for malformed runlist
+     */
+    void accept(char ch) throws AssertionError {
+        if ( ch >= '0' && ch <= '9' ) {
+            int digit = ch - '0';
+            switch ( state ) {
+                case RUN_START:
+                case LOWER_SIGN:
+                case LOWER_DIGITS:
+                    lower = accumulate(lower, digit);
+                    state = LOWER_DIGITS;
+                    break;
+                default:
+                    upper = accumulate(upper, digit);
+                    state = UPPER_DIGITS;
+                    break;
+            }
+        } else if ( ch == '-' ) {
+            switch ( state ) {
+                case RUN_START:
+                    lowerNeg = true;
+                    state = LOWER_SIGN;
+                    break;
+                case LOWER_DIGITS:
+                    state = UPPER_START;
+                    break;
+                case UPPER_START:
+                    upperNeg = true;
+                    state = UPPER_SIGN;
+                    break;
+                default:
+                    throw malformed(ch);
+            }
+        } else if ( ch == ',' ) {
+            endRun(ch);
+        } else if ( ch == ' ' || ch == '\t' || ch == '\r' || ch == '\n' ) {
+            return;
+        } else {
+            throw malformed(ch);
+        }
+
+        count++;
+    }
+
+    /**
+     * Finishes parsing.
+     *
+     * @return edges in the runlist
+     * @throws AssertionError for malformed runlist
+     */
+    IntArrayList finish() throws AssertionError {
+        if ( state == LOWER_SIGN && count == 1 ) {
+            // the empty set "-"
+            state = RUN_START;
+        } else if ( count > 0 ) {
+            endRun(',');
+        }
+
+        if ( !sorted ) {
+            IntSpan.normalizeEdges(edges);
+        }
+
+        return edges;
+    }
+
+    private void endRun(char ch) throws AssertionError {
+        int runLower;
+        int runUpper;
+
+        if ( state == LOWER_DIGITS ) {
+            runLower = toInt(lower, lowerNeg);
+            runUpper = runLower;
+        } else if ( state == UPPER_DIGITS ) {
+            runLower = toInt(lower, lowerNeg);
+            runUpper = toInt(upper, upperNeg);
+        } else {
+            throw malformed(ch);
+        }
+
+        runUpper++;
+
+        if ( runLower > runUpper )
+            throw new AssertionError(String.format("Bad order: %s,%s", Integer.toString(runLower), Integer.toString(runUpper)));
+
+        int size = edges.size();
+
+        if ( size == 0 || runLower > edges.get(size - 1) ) {
+            edges.add(runLower, runUpper);
+        } else if ( runLower >= edges.get(size - 2) ) {
+            // overlapping or adjacent to the last span
+            if ( runUpper > edges.get(size - 1) ) {
+                edges.set(size - 1, runUpper);
+            }
+        } else {
+            edges.add(runLower, runUpper);
+            sorted = false;
+        }
+
+        // reset for the next run
+        state = RUN_START;
+        lower = 0;
+        upper = 0;
+        lowerNeg = false;
+        upperNeg = false;
+    }
+
+    /**
+     * Appends a digit to the negated number, which reaches Integer.MIN_VALUE.
+     */
+    private static int accumulate(int negated, int digit) throws AssertionError {
+        if ( negated < (Integer.MIN_VALUE + digit) / 10 ) throw outOfRange();
+        return negated * 10 - digit;
+    }
+
+    private static int toInt(int negated, boolean negative) throws AssertionError {
+        if ( !negative && negated == Integer.MIN_VALUE ) throw outOfRange();
+        return negative ? negated : -negated;
+    }
+
+    private static AssertionError outOfRange() {
+        return new AssertionError("Bad runlist: number out of int range");
+    }
+
+    private static AssertionError malformed(char ch) {
+        return new AssertionError(String.format("Bad runlist: unexpected '%c'", ch));
+    }
+}
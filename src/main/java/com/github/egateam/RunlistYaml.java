@@ -0,0 +1,280 @@
+/**
+ * <tt>RunlistYaml</tt> loads runlist YAML files into {@link IntSpanMap}s.
+ * <p>
+ * Only the <tt>key: runlist</tt> dialect is supported, as in <tt>src/main/resources/r1.yml</tt>:
+ * <pre>
+ * ---
+ * # comments and blank lines are skipped
+ * 1: 3760-3913,3996-4276
+ * "chr 2": 1-100,
+ *   200-300
+ * </pre>
+ * Keys may be quoted. A value may continue on following indented lines. Repeated keys are merged.
+ * <p>
+ * Input is streamed, characters (or bytes of mapped files) go straight into the runlist parser, so
+ * neither the whole file nor any runlist is held as a String.
+ *
+ * @author Qiang Wang
+ * @since 1.7
+ */
+
+package com.github.egateam;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@SuppressWarnings("WeakerAccess")
+public final class RunlistYaml {
+    // Files are mapped in windows of this size
+    private static final long MAP_WINDOW = 64L * 1024 * 1024;
+
+    // States of the parser
+    private static final int LINE_START = 0;
+    private static final int KEY        = 1;
+    private static final int VALUE      = 2;
+    private static final int INDENT     = 3; // leading whitespaces, maybe a continued value
+    private static final int COMMENT    = 4;
+
+    private final IntSpanMap map = new IntSpanMap();
+
+    // Keys are collected as chars, or as bytes in Latin-1 and decoded as UTF-8
+    private final StringBuilder key = new StringBuilder();
+    private final boolean       bytes;
+
+    private int           state = LINE_START;
+    private String        valueKey; // key of the pending value
+    private RunlistParser value;    // parser of the pending value
+    private int           line  = 1;
+
+    private RunlistYaml(boolean bytes) {
+        this.bytes = bytes;
+    }
+
+    //----------------------------------------------------------
+    // Loaders
+    //----------------------------------------------------------
+
+    /**
+     * Reads a runlist YAML document from the supplied reader.
+     *
+     * @param reader the supplied reader, not closed
+     * @return a new map
+     * @throws IOException    if an I/O error occurs
+     * @throws AssertionError for malformed lines or runlists
+     */
+    public static IntSpanMap read(Reader reader) throws IOException, AssertionError {
+        RunlistYaml parser = new RunlistYaml(false);
+        char[]      buf    = new char[8192];
+
+        int n;
+        while ( (n = reader.read(buf)) != -1 ) {
+            for ( int i = 0; i < n; i++ ) {
+                parser.accept(buf[i]);
+            }
+        }
+
+        return parser.finish();
+    }
+
+    /**
+     * Reads a runlist YAML file, which is memory mapped and parsed as UTF-8 bytes.
+     *
+     * @param file the supplied file
+     * @return a new map
+     * @throws IOException    if an I/O error occurs
+     * @throws AssertionError for malformed lines or runlists
+     */
+    public static IntSpanMap read(File file) throws IOException, AssertionError {
+        RunlistYaml parser = new RunlistYaml(true);
+
+        try ( RandomAccessFile raf = new RandomAccessFile(file, "r") ) {
+            FileChannel channel = raf.getChannel();
+            long        size    = channel.size();
+
+            for ( long pos = 0; pos < size; pos += MAP_WINDOW ) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(MAP_WINDOW, size - pos));
+                while ( buffer.hasRemaining() ) {
+                    parser.accept((char) (buffer.get() & 0xFF));
+                }
+            }
+        }
+
+        return parser.finish();
+    }
+
+    /**
+     * Reads a batch of runlist YAML files.
+     *
+     * @param files the supplied files
+     * @return new maps, in the order of files
+     * @throws IOException    if an I/O error occurs
+     * @throws AssertionError for malformed lines or runlists
+     */
+    public static List<IntSpanMap> readAll(Collection<File> files) throws IOException, AssertionError {
+        List<IntSpanMap> maps = new ArrayList<>(files.size());
+        for ( File file : files ) {
+            maps.add(read(file));
+        }
+
+        return maps;
+    }
+
+    /**
+     * Reads a batch of runlist YAML files, merging all of them into one map.
+     *
+     * @param files the supplied files
+     * @return a new map, keys in order of their first appearances
+     * @throws IOException    if an I/O error occurs
+     * @throws AssertionError for malformed lines or runlists
+     */
+    public static IntSpanMap readMerged(Collection<File> files) throws IOException, AssertionError {
+        IntSpanMap merged = new IntSpanMap();
+        for ( File file : files ) {
+            IntSpanMap map = read(file);
+            for ( String key : map.keySet() ) {
+                merged.getOrCreate(key).merge(map.get(key));
+            }
+        }
+
+        return merged;
+    }
+
+    //----------------------------------------------------------
+    // Parser
+    //----------------------------------------------------------
+
+    private void accept(char ch) throws AssertionError {
+        switch ( state ) {
+            case LINE_START:
+                if ( ch == ' ' || ch == '\t' ) {
+                    state = INDENT;
+                } else if ( ch == '\n' || ch == '\r' ) {
+                    newLine(ch);
+                } else if ( ch == '#' ) {
+                    state = COMMENT;
+                } else {
+                    // a new key
+                    finishValue();
+                    key.append(ch);
+                    state = KEY;
+                }
+                break;
+            case INDENT:
+                if ( ch == ' ' || ch == '\t' ) {
+                    break;
+                } else if ( ch == '\n' || ch == '\r' ) {
+                    newLine(ch);
+                    state = LINE_START;
+                } else if ( ch == '#' ) {
+                    state = COMMENT;
+                } else if ( value != null ) {
+                    // continued value
+                    state = VALUE;
+                    acceptValue(ch);
+                } else {
+                    key.append(ch);
+                    state = KEY;
+                }
+                break;
+            case KEY:
+                if ( ch == ':' ) {
+                    startValue();
+                    state = VALUE;
+                } else if ( ch == '\n' ) {
+                    endKeyLine();
+                    newLine(ch);
+                    state = LINE_START;
+                } else {
+                    key.append(ch);
+                }
+                break;
+            case VALUE:
+                if ( ch == '\n' ) {
+                    newLine(ch);
+                    state = LINE_START;
+                } else if ( ch == '#' ) {
+                    state = COMMENT;
+                } else {
+                    acceptValue(ch);
+                }
+                break;
+            default: // COMMENT
+                if ( ch == '\n' ) {
+                    newLine(ch);
+                    state = LINE_START;
+                }
+                break;
+        }
+    }
+
+    private IntSpanMap finish() throws AssertionError {
+        if ( state == KEY ) {
+            endKeyLine();
+        }
+        finishValue();
+
+        return map;
+    }
+
+    private void newLine(char ch) {
+        if ( ch == '\n' ) {
+            line++;
+        }
+    }
+
+    private void acceptValue(char ch) throws AssertionError {
+        // quotes around values are dropped
+        if ( ch == '"' || ch == '\'' ) {
+            return;
+        }
+
+        try {
+            value.accept(ch);
+        } catch ( AssertionError err ) {
+            throw new AssertionError(String.format("Line %d: %s", line, err.getMessage()));
+        }
+    }
+
+    private void startValue() {
+        String name = key.toString().trim();
+        if ( bytes ) {
+            name = new String(name.getBytes(StandardCharsets.ISO_8859_1), StandardCharsets.UTF_8);
+        }
+        key.setLength(0);
+
+        valueKey = IntSpanMap.unquote(name);
+        value = new RunlistParser();
+    }
+
+    private void finishValue() throws AssertionError {
+        if ( value != null ) {
+            try {
+                map.getOrCreate(valueKey).addEdges(value.finish());
+            } catch ( AssertionError err ) {
+                throw new AssertionError(String.format("Key %s: %s", valueKey, err.getMessage()));
+            }
+            value = null;
+            valueKey = null;
+        }
+    }
+
+    /**
+     * A line without colon, only document markers are allowed.
+     */
+    private void endKeyLine() throws AssertionError {
+        String content = key.toString().trim();
+        key.setLength(0);
+
+        if ( !content.startsWith("---") && !content.equals("...") ) {
+            throw new AssertionError(String.format("Line %d: bad runlist YAML line: %s", line, content));
+        }
+    }
+}
@@ -9,6 +9,12 @@ package com.github.egateam;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
 public class IntSpanBinaryTest {
 
     @SuppressWarnings("CanBeFinal")
@@ -50,6 +56,9 @@ public class IntSpanBinaryTest {
             new TestData("3-9", "5-12", "3-12", "5-9", "3-4,10-12", "3-4", "10-12"),
             new TestData("3-9", "10-12", "3-12", "-", "3-12", "3-9", "10-12"),
             new TestData("1-3,5,8-11", "1-6", "1-6,8-11", "1-3,5", "4,6,8-11", "8-11", "4,6"),
+            new TestData("1-3", "4-6", "1-6", "-", "1-6", "1-3", "4-6"),
+            new TestData("1-3,7-9", "-", "1-3,7-9", "-", "1-3,7-9", "1-3,7-9", "-"),
+            new TestData("1-2,5-6,9-10", "2-5,10", "1-6,9-10", "2,5,10", "1,3-4,6,9", "1,6,9", "3-4"),
         };
 
     @Test(description = "Test Binary operators")
@@ -77,4 +86,127 @@ public class IntSpanBinaryTest {
             Assert.assertEquals(B.diff(A).toString(), new IntSpan(t.BA).toString(), message + " diff B-A");
         }
     }
+
+    @Test(description = "Test operations on many sets")
+    public void testAll() {
+        List<IntSpan> sets = Arrays.asList(new IntSpan("1-10"), new IntSpan("5-15,20"), new IntSpan("8-9,14-20"));
+
+        Assert.assertEquals(IntSpan.unionAll(sets).toString(), "1-20");
+        Assert.assertEquals(IntSpan.intersectAll(sets).toString(), "8-9");
+        Assert.assertEquals(IntSpan.atLeast(2, sets).toString(), "5-10,14-15,20");
+        Assert.assertEquals(IntSpan.atLeast(4, sets).toString(), "-");
+
+        Assert.assertEquals(IntSpan.unionAll(Collections.<IntSpan>emptyList()).toString(), "-");
+        Assert.assertEquals(IntSpan.intersectAll(Collections.<IntSpan>emptyList()).toString(), "-");
+        Assert.assertEquals(IntSpan.intersectAll(Arrays.asList(new IntSpan("1-5"), new IntSpan())).toString(), "-");
+
+        // adjacent spans of different sets are merged
+        Assert.assertEquals(IntSpan.unionAll(Arrays.asList(new IntSpan("1-5"), new IntSpan("6-9"))).toString(), "1-9");
+
+        // infinite sets
+        String inf = String.format("%d-%d", IntSpan.getNegInf(), IntSpan.getPosInf());
+        Assert.assertEquals(IntSpan.intersectAll(Arrays.asList(new IntSpan(inf), new IntSpan("1-5"))).toString(), "1-5");
+
+        // the same as pairwise operations
+        List<IntSpan> generated = new ArrayList<>();
+        for ( int i = 0; i < 20; i++ ) {
+            generated.add(new IntSpanGenerator(i).spans(50).generate());
+        }
+        IntSpan union     = new IntSpan();
+        IntSpan intersect = generated.get(0).copy();
+        for ( IntSpan set : generated ) {
+            union = union.union(set);
+            intersect = intersect.intersect(set);
+        }
+        Assert.assertTrue(IntSpan.unionAll(generated).equals(union));
+        Assert.assertTrue(IntSpan.intersectAll(generated).equals(intersect));
+        Assert.assertTrue(IntSpan.atLeast(1, generated.subList(0, 2))
+            .equals(generated.get(0).union(generated.get(1))));
+        Assert.assertTrue(IntSpan.atLeast(2, generated.subList(0, 2))
+            .equals(generated.get(0).intersect(generated.get(1))));
+    }
+
+    @Test(description = "Test binary operators in parallel")
+    public void testParallel() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        // small sets are merged sequentially
+        for ( TestData t : tests ) {
+            IntSpan A = new IntSpan(t.A);
+            IntSpan B = new IntSpan(t.B);
+            Assert.assertEquals(A.union(B, pool).toString(), t.U);
+            Assert.assertEquals(A.intersect(B, pool).toString(), t.I);
+            Assert.assertEquals(A.xor(B, pool).toString(), t.X);
+            Assert.assertEquals(A.diff(B, pool).toString(), t.AB);
+        }
+
+        // spans crossing borders of partitions
+        for ( int seed = 0; seed < 4; seed++ ) {
+            IntSpan[] pair = new IntSpanGenerator(seed)
+                .spans(50000)
+                .spanLength(IntSpanGenerator.Lengths.geometric(20))
+                .gapLength(IntSpanGenerator.Lengths.geometric(5))
+                .negInf(seed % 2 == 0)
+                .posInf(seed > 1)
+                .generatePair();
+            IntSpan A = pair[0];
+            IntSpan B = pair[1];
+
+            Assert.assertTrue(A.union(B, pool).equals(A.union(B)), "union " + seed);
+            Assert.assertTrue(A.intersect(B, pool).equals(A.intersect(B)), "intersect " + seed);
+            Assert.assertTrue(A.xor(B, pool).equals(A.xor(B)), "xor " + seed);
+            Assert.assertTrue(A.diff(B, pool).equals(A.diff(B)), "diff " + seed);
+            Assert.assertTrue(B.diff(A, pool).equals(B.diff(A)), "diff " + seed);
+        }
+    }
+
+    @Test(description = "Test binary operators in place and into a destination")
+    public void testInPlace() {
+        IntSpan dest = new IntSpan("1-100,200-300");
+        for ( TestData t : tests ) {
+            String  message = "Test " + t.A + " " + t.B;
+            IntSpan A       = new IntSpan(t.A);
+            IntSpan B       = new IntSpan(t.B);
+
+            Assert.assertEquals(A.copy().unionInPlace(B).toString(), t.U, message + " union");
+            Assert.assertEquals(A.copy().intersectInPlace(B).toString(), t.I, message + " intersect");
+            Assert.assertEquals(A.copy().retainAll(B).toString(), t.I, message + " retainAll");
+            Assert.assertEquals(A.copy().xorInPlace(B).toString(), t.X, message + " xor");
+            Assert.assertEquals(A.copy().diffInPlace(B).toString(), t.AB, message + " diff");
+            Assert.assertEquals(B.copy().diffInPlace(A).toString(), t.BA, message + " diff");
+
+            // dest is reused
+            Assert.assertTrue(A.unionInto(B, dest) == dest);
+            Assert.assertEquals(dest.toString(), t.U, message + " unionInto");
+            Assert.assertEquals(A.intersectInto(B, dest).toString(), t.I, message + " intersectInto");
+            Assert.assertEquals(A.xorInto(B, dest).toString(), t.X, message + " xorInto");
+            Assert.assertEquals(A.diffInto(B, dest).toString(), t.AB, message + " diffInto");
+
+            // dest is one of the operands
+            IntSpan copyB = B.copy();
+            Assert.assertEquals(A.diffInto(copyB, copyB).toString(), t.AB, message + " diffInto itself");
+            IntSpan copyA = A.copy();
+            Assert.assertEquals(copyA.xorInto(copyA, copyA).toString(), "-", message + " xor itself");
+        }
+
+        IntSpan set = new IntSpan("1-10,20-30");
+        set.removePair(5, 25);
+        Assert.assertEquals(set.toString(), "1-4,26-30");
+        set.removePair(26, 26).removePair(31, 40).removePair(-5, 1);
+        Assert.assertEquals(set.toString(), "2-4,27-30");
+        set.invert().invert();
+        Assert.assertEquals(set.toString(), "2-4,27-30");
+        set.clear().add(7);
+        Assert.assertEquals(set.toString(), "7");
+
+        Assert.assertEquals(new IntSpan("1-10").removePair(5, Integer.MAX_VALUE - 1).toString(), "1-4");
+        boolean caught = false;
+        try {
+            new IntSpan("1-10").removePair(5, Integer.MAX_VALUE);
+        } catch ( AssertionError err ) {
+            Assert.assertTrue(err.getMessage().startsWith("Bad order"));
+            caught = true;
+        }
+        Assert.assertTrue(caught, "Doesn't catch error");
+    }
 }
@@ -0,0 +1,64 @@
+/*
+ * THE SOFTWARE IS PROVIDED "AS IS" WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE HEREBY DISCLAIMED.
+ */
+
+package com.github.egateam;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+public class IntSpanBuilderTest {
+
+    @Test(description = "Test building from unordered spans")
+    public void testBuild() {
+        IntSpanBuilder builder = new IntSpanBuilder()
+            .addPair(20, 30)
+            .addPair(1, 5)
+            .add(6)
+            .addPair(25, 40)
+            .add(new int[]{100, 8, 9});
+        Assert.assertEquals(builder.pairSize(), 7);
+        Assert.assertEquals(builder.build().toString(), "1-6,8-9,20-40,100");
+
+        // compacted, and the builder goes on
+        Assert.assertEquals(builder.pairSize(), 4);
+        builder.add(new IntSpan("7,10-19,41-99"));
+        Assert.assertEquals(builder.toString(), "1-100");
+        Assert.assertEquals(builder.clear().build().toString(), "-");
+
+        int caught = 0;
+        try {
+            builder.addPair(5, 1);
+        } catch ( AssertionError err ) {
+            caught++;
+        }
+        try {
+            builder.add(Integer.MAX_VALUE);
+        } catch ( AssertionError err ) {
+            caught++;
+        }
+        Assert.assertEquals(caught, 2);
+        Assert.assertEquals(builder.pairSize(), 0);
+    }
+
+    @Test(description = "Compare with addPair() on random spans")
+    public void testRandom() {
+        Random random = new Random(42);
+
+        IntSpan        expected = new IntSpan();
+        IntSpanBuilder builder  = new IntSpanBuilder();
+        for ( int i = 0; i < 50000; i++ ) {
+            int lower = random.nextInt(1000000);
+            int upper = lower + random.nextInt(100);
+            expected.addPair(lower, upper);
+            builder.addPair(lower, upper);
+        }
+
+        Assert.assertEquals(builder.build().toString(), expected.toString());
+        Assert.assertEquals(builder.pairSize(), expected.spanSize());
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * THE SOFTWARE IS PROVIDED "AS IS" WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE HEREBY DISCLAIMED.
+ */
+
+package com.github.egateam;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class IntSpanConcurrentTest {
+
+    @Test(description = "Test atomic writes")
+    public void testWrites() {
+        ConcurrentIntSpan set = new ConcurrentIntSpan(new IntSpan("1-10"));
+
+        ImmutableIntSpan before = set.snapshot();
+        set.addPair(20, 30).removePair(5, 25);
+        Assert.assertEquals(set.toString(), "1-4,26-30");
+        Assert.assertEquals(before.toString(), "1-10");
+
+        Assert.assertTrue(set.contains(27));
+        Assert.assertFalse(set.contains(5));
+        Assert.assertTrue(set.containsAll(new int[]{1, 30}));
+        Assert.assertTrue(set.containsAny(new int[]{5, 30}));
+        Assert.assertEquals(set.cardinality(), 9);
+
+        set.retain(new IntSpan("3-27"));
+        Assert.assertEquals(set.toString(), "3-4,26-27");
+
+        Assert.assertEquals(set.replace(new IntSpan("100")).toString(), "3-4,26-27");
+        Assert.assertEquals(set.toString(), "100");
+
+        Assert.assertTrue(set.clear().isEmpty());
+    }
+
+    @Test(description = "Test readers during writes")
+    public void testReaders() throws Exception {
+        final ConcurrentIntSpan set     = new ConcurrentIntSpan();
+        final AtomicBoolean     writing = new AtomicBoolean(true);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            // every version is 10 integers wide spans at multiples of 100
+            List<Future<Integer>> readers = new ArrayList<>();
+            for ( int r = 0; r < 3; r++ ) {
+                readers.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() {
+                        int reads = 0;
+                        while ( writing.get() || reads == 0 ) {
+                            ImmutableIntSpan snapshot = set.snapshot();
+                            Assert.assertEquals(snapshot.cardinality(), 10 * snapshot.spanSize());
+                            Assert.assertEquals(snapshot.contains(5), snapshot.isNotEmpty());
+                            reads++;
+                        }
+                        return reads;
+                    }
+                }));
+            }
+
+            for ( int i = 0; i < 2000; i++ ) {
+                set.addPair(i * 100, i * 100 + 9);
+            }
+            writing.set(false);
+
+            for ( Future<Integer> reader : readers ) {
+                Assert.assertTrue(reader.get() > 0);
+            }
+            Assert.assertEquals(set.cardinality(), 20000);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
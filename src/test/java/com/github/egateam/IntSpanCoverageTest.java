@@ -0,0 +1,95 @@
+/*
+ * THE SOFTWARE IS PROVIDED "AS IS" WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE HEREBY DISCLAIMED.
+ */
+
+package com.github.egateam;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class IntSpanCoverageTest {
+
+    @Test(description = "Test depth profiles")
+    public void testCoverage() {
+        IntSpanCoverage coverage = new IntSpanCoverage()
+            .add(new IntSpan("1-10"))
+            .add(new IntSpan("5-15"))
+            .addPair(8, 20);
+
+        Assert.assertEquals(coverage.toString(), "1-4:1,5-7:2,8-10:3,11-15:2,16-20:1");
+        Assert.assertEquals(coverage.runSize(), 5);
+        Assert.assertEquals(coverage.lower(2), 8);
+        Assert.assertEquals(coverage.upper(2), 10);
+        Assert.assertEquals(coverage.depth(2), 3);
+        Assert.assertEquals(coverage.maxDepth(), 3);
+
+        Assert.assertEquals(coverage.depthAt(0), 0);
+        Assert.assertEquals(coverage.depthAt(1), 1);
+        Assert.assertEquals(coverage.depthAt(9), 3);
+        Assert.assertEquals(coverage.depthAt(20), 1);
+        Assert.assertEquals(coverage.depthAt(21), 0);
+
+        Assert.assertEquals(coverage.atLeast(1).toString(), "1-20");
+        Assert.assertEquals(coverage.atLeast(2).toString(), "5-15");
+        Assert.assertEquals(coverage.exactly(2).toString(), "5-7,11-15");
+        Assert.assertEquals(coverage.exactly(4).toString(), "-");
+        Assert.assertEquals(coverage.between(1, 2).toString(), "1-7,11-20");
+
+        // additions drop the profile
+        coverage.addPair(21, 30).addPair(40, 40);
+        Assert.assertEquals(coverage.toString(), "1-4:1,5-7:2,8-10:3,11-15:2,16-30:1,40:1");
+
+        // spans ending where others start
+        coverage = new IntSpanCoverage().addPair(1, 5).addPair(6, 9).addPair(1, 9);
+        Assert.assertEquals(coverage.toString(), "1-9:2");
+
+        Assert.assertEquals(new IntSpanCoverage().toString(), "-");
+        Assert.assertEquals(new IntSpanCoverage().maxDepth(), 0);
+        Assert.assertEquals(new IntSpanCoverage().depthAt(1), 0);
+    }
+
+    @Test(description = "Test coverage of sets")
+    public void testSets() {
+        List<IntSpan> sets = new ArrayList<>();
+        for ( int i = 0; i < 10; i++ ) {
+            sets.add(new IntSpanGenerator(i).spans(100).generate());
+        }
+        IntSpanCoverage coverage = IntSpan.coverage(sets);
+
+        for ( int k = 1; k <= 11; k++ ) {
+            Assert.assertTrue(coverage.atLeast(k).equals(IntSpan.atLeast(k, sets)), "Depth " + k);
+        }
+
+        String inf = String.format("%d-%d", IntSpan.getNegInf(), IntSpan.getPosInf());
+        coverage = IntSpan.coverage(Arrays.asList(new IntSpan(inf), new IntSpan("1-5")));
+        Assert.assertEquals(coverage.exactly(2).toString(), "1-5");
+        Assert.assertEquals(coverage.atLeast(1).toString(), inf);
+    }
+
+    @Test(description = "Test bad depths and spans")
+    public void testBad() {
+        boolean caught = false;
+        try {
+            new IntSpanCoverage().atLeast(0);
+        } catch ( AssertionError err ) {
+            System.out.println(err.getMessage());
+            caught = true;
+        }
+        Assert.assertTrue(caught, "Doesn't catch error");
+
+        caught = false;
+        try {
+            new IntSpanCoverage().addPair(5, Integer.MAX_VALUE);
+        } catch ( AssertionError err ) {
+            System.out.println(err.getMessage());
+            caught = true;
+        }
+        Assert.assertTrue(caught, "Doesn't catch error");
+    }
+}
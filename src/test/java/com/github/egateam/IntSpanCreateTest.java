@@ -6,9 +6,17 @@
 
 package com.github.egateam;
 
+import com.carrotsearch.hppc.IntArrayList;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 public class IntSpanCreateTest {
 
     @SuppressWarnings("CanBeFinal")
@@ -36,11 +44,13 @@ public class IntSpanCreateTest {
             new TestData("-2-1", "-2-1", new int[]{-2, -1, 0, 1}),
             new TestData("1,3-4", "1,3-4", new int[]{1, 3, 4}),
 
-//            new TestData("1-1", "1", new int[]{1}),
-//            new TestData("1,2-4", "1-4", new int[]{1, 2, 3, 4}),
-//            new TestData("1-3,4,5-7", "1-7", new int[]{1, 2, 3, 4, 5, 6, 7}),
-//            new TestData("1-3,4", "1-4", new int[]{1, 2, 3, 4}),
-//            new TestData("1,2,3,4,5,6,7", "1-7", new int[]{1, 2, 3, 4, 5, 6, 7}),
+            new TestData("1-1", "1", new int[]{1}),
+            new TestData("1,2-4", "1-4", new int[]{1, 2, 3, 4}),
+            new TestData("1-3,4,5-7", "1-7", new int[]{1, 2, 3, 4, 5, 6, 7}),
+            new TestData("1-3,4", "1-4", new int[]{1, 2, 3, 4}),
+            new TestData("1,2,3,4,5,6,7", "1-7", new int[]{1, 2, 3, 4, 5, 6, 7}),
+            new TestData("5,1-3", "1-3,5", new int[]{1, 2, 3, 5}),
+            new TestData("7-9,2-4,3-8", "2-9", new int[]{2, 3, 4, 5, 6, 7, 8, 9}),
         };
 
     @Test(description = "Test creations from runlist")
@@ -69,6 +79,66 @@ public class IntSpanCreateTest {
         }
     }
 
+    @Test(description = "Test creations from other runlist sources")
+    public void testCreationSources() throws IOException {
+        for ( TestData t : tests ) {
+            String message = "Test " + t.input;
+            String wrapped = "1: " + t.input + "\n";
+            byte[] bytes   = wrapped.getBytes(StandardCharsets.US_ASCII);
+
+            Assert.assertEquals(new IntSpan().add(new StringBuilder(t.input)).toString(), t.runlist, message);
+            Assert.assertEquals(new IntSpan().add(wrapped, 3, 3 + t.input.length()).toString(), t.runlist, message);
+            Assert.assertEquals(new IntSpan().add(bytes, 3, t.input.length()).toString(), t.runlist, message);
+            Assert.assertEquals(new IntSpan().add(new StringReader(t.input)).toString(), t.runlist, message);
+
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 3, t.input.length());
+            Assert.assertEquals(new IntSpan().add(buffer).toString(), t.runlist, message);
+            Assert.assertFalse(buffer.hasRemaining(), message);
+        }
+
+        // merge into a non-empty set
+        Assert.assertEquals(new IntSpan("1-3").add(new StringReader("2-5,\n 10")).toString(), "1-5,10");
+        Assert.assertEquals(new IntSpan("1-10").remove("2-5,7").toString(), "1,6,8-10");
+    }
+
+    @Test(description = "Test formatting runlists to other targets")
+    public void testFormat() throws IOException {
+        String[] runlists = {
+            "-", "0", "-1", "-2--1", "-2-1", "1,3-4", "-2147483647--2147483646",
+            String.format("%d-%d", IntSpan.getNegInf(), IntSpan.getPosInf()),
+        };
+
+        for ( String runlist : runlists ) {
+            IntSpan set = new IntSpan(runlist);
+            Assert.assertEquals(set.toString(), runlist);
+
+            Assert.assertEquals(set.appendTo(new StringBuilder("x")).toString(), "x" + runlist);
+            Assert.assertEquals(set.appendTo(new StringWriter()).toString(), runlist);
+
+            ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            set.writeRunlist(stream);
+            Assert.assertEquals(stream.toString("US-ASCII"), runlist);
+
+            ByteBuffer buffer = ByteBuffer.allocate(runlist.length());
+            set.writeRunlist(buffer);
+            Assert.assertEquals(new String(buffer.array(), StandardCharsets.US_ASCII), runlist);
+        }
+
+        // many spans, crossing chunk boundaries
+        IntSpan       set      = new IntSpan();
+        StringBuilder expected = new StringBuilder();
+        for ( int i = 0; i < 5000; i++ ) {
+            set.addPair(i * 1000, i * 1000 + 10);
+            expected.append(i == 0 ? "" : ",").append(i * 1000).append('-').append(i * 1000 + 10);
+        }
+        Assert.assertEquals(set.toString(), expected.toString());
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        set.writeRunlist(stream);
+        Assert.assertEquals(stream.toString("US-ASCII"), expected.toString());
+        Assert.assertEquals(set.appendTo(new StringWriter()).toString(), expected.toString());
+    }
+
     @Test(description = "Test creations from int")
     public void testCreationInt() {
         {
@@ -118,6 +188,16 @@ public class IntSpanCreateTest {
                 Assert.assertTrue(false, "Doesn't catch error");
             }
 
+            boolean caught = false;
+            try {
+                IntSpan set = new IntSpan("1,,2");
+                set.cardinality();
+            } catch ( AssertionError err ) {
+                System.out.println(err.getMessage());
+                caught = true;
+            }
+            Assert.assertTrue(caught, "Doesn't catch error");
+
             try {
                 IntSpan set = new IntSpan("abc");
                 set.cardinality();
@@ -132,4 +212,49 @@ public class IntSpanCreateTest {
             }
         }
     }
+
+    @Test(description = "Test runlists out of int range")
+    public void testCreationOverflow() {
+        String[] bads = {"5-2147483647", "2147483647", "99999999999", "1-99999999999", "2147483648", "-2147483649"};
+        for ( String bad : bads ) {
+            boolean caught = false;
+            try {
+                new IntSpan(bad);
+            } catch ( AssertionError err ) {
+                System.out.println(err.getMessage());
+                caught = true;
+            }
+            Assert.assertTrue(caught, "Doesn't catch error of " + bad);
+        }
+
+        // infinities are still in range
+        String inf = String.format("%d-%d", IntSpan.getNegInf(), IntSpan.getPosInf());
+        Assert.assertEquals(new IntSpan(inf).toString(), inf);
+        Assert.assertTrue(new IntSpan("5-2147483646").contains(10));
+    }
+
+    @Test(description = "Test ranges with upper out of int range")
+    public void testRangeOverflow() {
+        IntSpan[] sets = {new IntSpan(), new IntSpan("1-3")};
+        for ( IntSpan set : sets ) {
+            boolean caught = false;
+            try {
+                set.addRange(IntArrayList.from(5, Integer.MAX_VALUE));
+            } catch ( AssertionError err ) {
+                System.out.println(err.getMessage());
+                caught = true;
+            }
+            Assert.assertTrue(caught, "Doesn't catch error");
+
+            caught = false;
+            try {
+                set.add(new int[]{Integer.MAX_VALUE});
+            } catch ( AssertionError err ) {
+                caught = true;
+            }
+            Assert.assertTrue(caught, "Doesn't catch error");
+        }
+        Assert.assertEquals(sets[0].toString(), "-");
+        Assert.assertEquals(sets[1].toString(), "1-3");
+    }
 }
@@ -0,0 +1,176 @@
+/*
+ * THE SOFTWARE IS PROVIDED "AS IS" WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE HEREBY DISCLAIMED.
+ */
+
+package com.github.egateam;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class IntSpanDirectTest {
+
+    private static final String[][] tests = {
+        //  A               B         U             I          X                 A-B
+        {"-", "-", "-", "-", "-", "-"},
+        {"1", "2", "1-2", "-", "1-2", "1"},
+        {"3-9", "5-12", "3-12", "5-9", "3-4,10-12", "3-4"},
+        {"1-3,5,8-11", "1-6", "1-6,8-11", "1-3,5", "4,6,8-11", "8-11"},
+        {"1-2,5-6,9-10", "2-5,10", "1-6,9-10", "2,5,10", "1,3-4,6,9", "1,6,9"},
+    };
+
+    @Test(description = "Test operations of direct sets")
+    public void testDirect() {
+        for ( String[] t : tests ) {
+            String message = "Test " + t[0] + " " + t[1];
+            try ( DirectIntSpan A = DirectIntSpan.copyOf(new IntSpan(t[0]));
+                  DirectIntSpan B = DirectIntSpan.copyOf(new IntSpan(t[1])) ) {
+                Assert.assertEquals(A.toString(), t[0], message);
+                Assert.assertEquals(A.union(B).toString(), t[2], message + " union");
+                Assert.assertEquals(A.intersect(B).toString(), t[3], message + " intersect");
+                Assert.assertEquals(A.xor(B).toString(), t[4], message + " xor");
+                Assert.assertEquals(A.diff(B).toString(), t[5], message + " diff");
+
+                Assert.assertTrue(A.sameElements(new IntSpan(t[0])), message);
+                Assert.assertFalse(A.equals(new IntSpan(t[0])), message);
+                Assert.assertFalse(new IntSpan(t[0]).equals(A), message);
+                Assert.assertTrue(A.toIntSpan().equals(new IntSpan(t[0])), message);
+                Assert.assertEquals(A.hashCode(), new IntSpan(t[0]).hashCode(), message);
+                Assert.assertEquals(A.cardinality(), new IntSpan(t[0]).cardinality(), message);
+            }
+        }
+
+        try ( DirectIntSpan set = DirectIntSpan.copyOf(new IntSpan("1-3,5,8-11")) ) {
+            Assert.assertTrue(set.contains(2));
+            Assert.assertFalse(set.contains(4));
+            Assert.assertEquals(set.min(), 1);
+            Assert.assertEquals(set.max(), 11);
+            Assert.assertEquals(set.spanSize(), 3);
+            Assert.assertTrue(set.equals(set.union(set)));
+        }
+
+        // large infinite sets
+        String inf = String.format("%d-%d", IntSpan.getNegInf(), IntSpan.getPosInf());
+        try ( DirectIntSpan set = DirectIntSpan.copyOf(new IntSpan(inf)) ) {
+            Assert.assertEquals(set.cardinality(), (long) IntSpan.getPosInf() - IntSpan.getNegInf() + 1);
+        }
+    }
+
+    @Test(description = "Test wrapping buffers and closing")
+    public void testWrap() {
+        DirectIntSpan set = DirectIntSpan.copyOf(new IntSpan("1-3,5,8-11"));
+
+        // e.g. written to and mapped from a file
+        ByteBuffer copy = ByteBuffer.allocate(set.buffer().remaining()).order(ByteOrder.BIG_ENDIAN);
+        ByteBuffer view = set.buffer();
+        while ( view.hasRemaining() ) {
+            copy.putInt(view.getInt());
+        }
+        copy.flip();
+        DirectIntSpan wrapped = DirectIntSpan.wrap(copy);
+        Assert.assertTrue(wrapped.equals(set));
+        Assert.assertEquals(wrapped.toString(), "1-3,5,8-11");
+
+        // buffers of owned memory are copies, and outlive the closed owner
+        DirectIntSpan shared = DirectIntSpan.wrap(set.buffer());
+
+        set.close();
+        Assert.assertEquals(shared.toString(), "1-3,5,8-11");
+        Assert.assertTrue(shared.contains(10));
+
+        set.close();
+        Assert.assertTrue(set.isClosed());
+        boolean caught = false;
+        try {
+            set.contains(1);
+        } catch ( IllegalStateException err ) {
+            System.out.println(err.getMessage());
+            caught = true;
+        }
+        Assert.assertTrue(caught, "Doesn't catch error");
+
+        caught = false;
+        try {
+            ByteBuffer bad = ByteBuffer.allocate(8).putInt(5).putInt(1);
+            bad.flip();
+            DirectIntSpan.wrap(bad);
+        } catch ( AssertionError err ) {
+            System.out.println(err.getMessage());
+            caught = true;
+        }
+        Assert.assertTrue(caught, "Doesn't catch error");
+    }
+
+    @Test(description = "Compare with IntSpan on random sets of many chunks")
+    public void testRandom() {
+        Random random = new Random(42);
+        for ( int t = 0; t < 10; t++ ) {
+            IntSpan A = new IntSpan();
+            IntSpan B = new IntSpan();
+            for ( int i = 0; i < 5000 * t; i++ ) {
+                int val = random.nextInt(1000000);
+                A.addPair(val, val + random.nextInt(50));
+                if ( i % (t + 1) == 0 ) {
+                    B.add(random.nextInt(1000000));
+                }
+            }
+
+            try ( DirectIntSpan directA = DirectIntSpan.copyOf(A);
+                  DirectIntSpan directB = DirectIntSpan.copyOf(B) ) {
+                Assert.assertEquals(directA.union(directB).toString(), A.union(B).toString());
+                Assert.assertEquals(directA.intersect(directB).toString(), A.intersect(B).toString());
+                Assert.assertEquals(directA.diff(directB).toString(), A.diff(B).toString());
+                Assert.assertEquals(directB.diff(directA).toString(), B.diff(A).toString());
+                Assert.assertEquals(directA.xor(directB).toString(), A.xor(B).toString());
+
+                for ( int i = 0; i < 1000; i++ ) {
+                    int val = random.nextInt(1000100) - 50;
+                    Assert.assertEquals(directA.contains(val), A.contains(val));
+                }
+            }
+        }
+    }
+
+    @Test(description = "Test closing while other threads read")
+    public void testConcurrentClose() throws InterruptedException {
+        IntSpanBuilder builder = new IntSpanBuilder();
+        for ( int i = 0; i < 100000; i++ ) {
+            builder.addPair(i * 3, i * 3 + 1);
+        }
+        final DirectIntSpan set = DirectIntSpan.copyOf(builder.build());
+
+        final AtomicInteger wrong   = new AtomicInteger();
+        Thread[]            readers = new Thread[4];
+        for ( int t = 0; t < readers.length; t++ ) {
+            readers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for ( int i = 0; ; i++ ) {
+                            if ( set.contains(i % 300000) != (i % 300000 % 3 != 2) || set.cardinality() != 200000 ) {
+                                wrong.incrementAndGet();
+                            }
+                        }
+                    } catch ( IllegalStateException err ) {
+                        // closed
+                    }
+                }
+            });
+            readers[t].start();
+        }
+
+        Thread.sleep(50);
+        set.close();
+        for ( Thread reader : readers ) {
+            reader.join();
+        }
+        Assert.assertEquals(wrong.get(), 0);
+        Assert.assertTrue(set.isClosed());
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * THE SOFTWARE IS PROVIDED "AS IS" WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE HEREBY DISCLAIMED.
+ */
+
+package com.github.egateam;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class IntSpanGeneratorTest {
+
+    @Test(description = "Test generated sets")
+    public void testGenerate() {
+        IntSpanGenerator generator = new IntSpanGenerator(42)
+            .spans(1000)
+            .start(100)
+            .spanLength(IntSpanGenerator.Lengths.fixed(10))
+            .gapLength(IntSpanGenerator.Lengths.geometric(20));
+
+        IntSpan set = generator.generate();
+        Assert.assertEquals(set.spanSize(), 1000);
+        Assert.assertEquals(set.cardinality(), 10000);
+        Assert.assertEquals(set.min(), 100);
+
+        // deterministic
+        Assert.assertTrue(set.equals(new IntSpanGenerator(42)
+            .spans(1000)
+            .start(100)
+            .spanLength(IntSpanGenerator.Lengths.fixed(10))
+            .gapLength(IntSpanGenerator.Lengths.geometric(20))
+            .generate()));
+        Assert.assertFalse(set.equals(new IntSpanGenerator(43)
+            .spans(1000)
+            .start(100)
+            .spanLength(IntSpanGenerator.Lengths.fixed(10))
+            .gapLength(IntSpanGenerator.Lengths.geometric(20))
+            .generate()));
+
+        // the first set of a pair is the same set
+        IntSpan[] pair = generator.generatePair();
+        Assert.assertTrue(pair[0].equals(set));
+        Assert.assertTrue(pair[0].overlaps(pair[1]));
+
+        IntSpan[] disjoint = generator.overlap(0).generatePair();
+        Assert.assertTrue(disjoint[0].disjoint(disjoint[1]));
+
+        IntSpan[] same = generator.overlap(1).spanLength(IntSpanGenerator.Lengths.fixed(1)).generatePair();
+        Assert.assertTrue(same[0].equals(same[1]));
+    }
+
+    @Test(description = "Test infinite arms")
+    public void testInfinite() {
+        IntSpanGenerator generator = new IntSpanGenerator(1).spans(10);
+
+        IntSpan set = generator.negInf(true).generate();
+        Assert.assertTrue(set.isNegInf());
+        Assert.assertFalse(set.isPosInf());
+        Assert.assertEquals(set.spanSize(), 11);
+
+        set = generator.posInf(true).generate();
+        Assert.assertTrue(set.isPosInf());
+        Assert.assertEquals(set.spanSize(), 12);
+
+        IntSpan[] pair = generator.generatePair();
+        Assert.assertTrue(pair[1].isNegInf());
+        Assert.assertTrue(pair[1].isPosInf());
+    }
+
+    @Test(description = "Test bad settings")
+    public void testBad() {
+        boolean caught = false;
+        try {
+            new IntSpanGenerator(1).spans(100).start(IntSpan.getPosInf() - 10).generate();
+        } catch ( AssertionError err ) {
+            System.out.println(err.getMessage());
+            caught = true;
+        }
+        Assert.assertTrue(caught, "Doesn't catch error");
+
+        caught = false;
+        try {
+            IntSpanGenerator.Lengths.uniform(0, 10);
+        } catch ( AssertionError err ) {
+            System.out.println(err.getMessage());
+            caught = true;
+        }
+        Assert.assertTrue(caught, "Doesn't catch error");
+    }
+}
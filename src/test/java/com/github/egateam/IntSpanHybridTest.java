@@ -0,0 +1,109 @@
+/*
+ * THE SOFTWARE IS PROVIDED "AS IS" WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE HEREBY DISCLAIMED.
+ */
+
+package com.github.egateam;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+public class IntSpanHybridTest {
+
+    private static final String[][] tests = {
+        //  A               B         U             I          X                 A-B
+        {"-", "-", "-", "-", "-", "-"},
+        {"1", "2", "1-2", "-", "1-2", "1"},
+        {"3-9", "5-12", "3-12", "5-9", "3-4,10-12", "3-4"},
+        {"1-3,5,8-11", "1-6", "1-6,8-11", "1-3,5", "4,6,8-11", "8-11"},
+        {"1-2,5-6,9-10", "2-5,10", "1-6,9-10", "2,5,10", "1,3-4,6,9", "1,6,9"},
+        {"-70000--10,65530-65540", "-65540--65530,1-131072", "-70000--10,1-131072", "-65540--65530,65530-65540", "-70000--65541,-65529--10,1-65529,65541-131072", "-70000--65541,-65529--10"},
+    };
+
+    @Test(description = "Test operations of hybrid sets")
+    public void testHybrid() {
+        for ( String[] t : tests ) {
+            String        message = "Test " + t[0] + " " + t[1];
+            HybridIntSpan A       = new HybridIntSpan(new IntSpan(t[0]));
+            HybridIntSpan B       = new HybridIntSpan(new IntSpan(t[1]));
+
+            Assert.assertEquals(A.toString(), t[0], message);
+            Assert.assertEquals(A.union(B).toString(), t[2], message + " union");
+            Assert.assertEquals(A.intersect(B).toString(), t[3], message + " intersect");
+            Assert.assertEquals(A.xor(B).toString(), t[4], message + " xor");
+            Assert.assertEquals(A.diff(B).toString(), t[5], message + " diff");
+
+            Assert.assertEquals(A.cardinality(), new IntSpan(t[0]).cardinality(), message);
+            Assert.assertEquals(A.isEmpty(), t[0].equals("-"), message);
+            Assert.assertEquals(A.union(B), new HybridIntSpan(new IntSpan(t[2])), message);
+        }
+    }
+
+    @Test(description = "Forms of blocks follow density")
+    public void testForms() {
+        HybridIntSpan sparse = new HybridIntSpan(new int[]{5, 1, 3, 3, 65536 + 7});
+        Assert.assertEquals(sparse.toString(), "1,3,5,65543");
+        Assert.assertEquals(sparse.blockSize(), 2);
+        Assert.assertEquals(sparse.blockForm(0), HybridIntSpan.ARRAY);
+        Assert.assertTrue(sparse.contains(65543));
+        Assert.assertFalse(sparse.contains(2));
+
+        HybridIntSpan runs = new HybridIntSpan(new IntSpan("100-60000"));
+        Assert.assertEquals(runs.blockForm(0), HybridIntSpan.RUNS);
+        Assert.assertEquals(runs.sizeInBytes(), 4 + 16 + 8);
+
+        // every other integer
+        int[] ints = new int[30000];
+        for ( int i = 0; i < ints.length; i++ ) {
+            ints[i] = i * 2;
+        }
+        HybridIntSpan bitmap = new HybridIntSpan(ints);
+        Assert.assertEquals(bitmap.blockForm(0), HybridIntSpan.BITMAP);
+        Assert.assertEquals(bitmap.cardinality(), 30000);
+        Assert.assertTrue(bitmap.contains(59998));
+        Assert.assertFalse(bitmap.contains(59999));
+        Assert.assertEquals(bitmap.toString(), new IntSpan(ints).toString());
+
+        // filling the holes turns the bitmap into one run
+        HybridIntSpan filled = bitmap.union(new HybridIntSpan(new IntSpan("0-59999")));
+        Assert.assertEquals(filled.blockForm(0), HybridIntSpan.RUNS);
+        Assert.assertEquals(filled.toString(), "0-59999");
+
+        Assert.assertEquals(new HybridIntSpan(new IntSpan().invert()).toString(), new IntSpan().invert().toString());
+
+        boolean caught = false;
+        try {
+            new HybridIntSpan(new int[]{Integer.MAX_VALUE});
+        } catch ( AssertionError err ) {
+            caught = true;
+        }
+        Assert.assertTrue(caught);
+    }
+
+    @Test(description = "Compare with IntSpan on random sets")
+    public void testRandom() {
+        Random random = new Random(42);
+        for ( int t = 0; t < 50; t++ ) {
+            IntSpan A = new IntSpan();
+            IntSpan B = new IntSpan();
+            for ( int i = 0; i < 2000; i++ ) {
+                int val = random.nextInt(400000) - 200000;
+                A.addPair(val, val + random.nextInt(t + 1));
+                B.add(random.nextInt(400000) - 200000);
+            }
+
+            HybridIntSpan hybridA = new HybridIntSpan(A);
+            HybridIntSpan hybridB = new HybridIntSpan(B.toArray());
+
+            Assert.assertEquals(hybridA.toString(), A.toString());
+            Assert.assertEquals(hybridB.toString(), B.toString());
+            Assert.assertEquals(hybridA.union(hybridB).toString(), A.union(B).toString());
+            Assert.assertEquals(hybridA.intersect(hybridB).toString(), A.intersect(B).toString());
+            Assert.assertEquals(hybridA.diff(hybridB).toString(), A.diff(B).toString());
+            Assert.assertEquals(hybridA.xor(hybridB).toString(), A.xor(B).toString());
+        }
+    }
+}
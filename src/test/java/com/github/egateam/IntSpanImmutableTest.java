@@ -0,0 +1,123 @@
+/*
+ * THE SOFTWARE IS PROVIDED "AS IS" WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE HEREBY DISCLAIMED.
+ */
+
+package com.github.egateam;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class IntSpanImmutableTest {
+
+    @Test(description = "Test cached values of frozen sets")
+    public void testCached() {
+        IntSpan          set    = new IntSpan("1-3,5,7,9,100-999,1001-10000");
+        ImmutableIntSpan frozen = set.freeze();
+
+        Assert.assertEquals(frozen.toString(), set.toString());
+        Assert.assertEquals(frozen.cardinality(), 9906);
+        Assert.assertEquals(frozen.min(), 1);
+        Assert.assertEquals(frozen.max(), 10000);
+        Assert.assertEquals(frozen.hashCode(), set.hashCode());
+        Assert.assertTrue(frozen.equals(set));
+        Assert.assertTrue(set.equals(frozen));
+        Assert.assertEquals(frozen.at(5), 7);
+        Assert.assertEquals(frozen.index(100), 7);
+
+        // frozen sets are detached from the original one
+        set.addPair(20, 30);
+        Assert.assertEquals(frozen.toString(), "1-3,5,7,9,100-999,1001-10000");
+
+        Assert.assertSame(frozen.copy(), frozen);
+        Assert.assertSame(frozen.freeze(), frozen);
+
+        ImmutableIntSpan empty = new IntSpan().freeze();
+        Assert.assertEquals(empty.cardinality(), 0);
+        Assert.assertEquals(empty.toString(), "-");
+    }
+
+    @Test(description = "Test operations of frozen sets")
+    public void testOperations() {
+        ImmutableIntSpan A = new IntSpan("1-3,5,8-11").freeze();
+        IntSpan          B = new IntSpan("1-6");
+
+        Assert.assertEquals(A.union(B).toString(), "1-6,8-11");
+        Assert.assertEquals(A.intersect(B).toString(), "1-3,5");
+        Assert.assertEquals(A.xor(B).toString(), "4,6,8-11");
+        Assert.assertEquals(A.diff(B).toString(), "8-11");
+        Assert.assertEquals(B.diff(A).toString(), "4,6");
+        Assert.assertEquals(A.holes().toString(), "4,6-7");
+        Assert.assertEquals(A.fill(1).toString(), "1-5,8-11");
+        Assert.assertEquals(A.inset(1).toString(), "2,9-10");
+        Assert.assertEquals(A.excise(2).toString(), "1-3,8-11");
+        Assert.assertEquals(A.cover().toString(), "1-11");
+        Assert.assertEquals(A.slice(2, 5).toString(), "2-3,5,8");
+        Assert.assertTrue(A.complement().complement().equals(A));
+
+        Assert.assertTrue(A.union(B) instanceof ImmutableIntSpan);
+        Assert.assertTrue(A.intersection(B) instanceof ImmutableIntSpan);
+        Assert.assertTrue(A.pad(1) instanceof ImmutableIntSpan);
+
+        // mutable copy
+        IntSpan thawed = new IntSpan(A);
+        thawed.add(4);
+        Assert.assertEquals(thawed.toString(), "1-5,8-11");
+    }
+
+    @Test(description = "Test mutators of frozen sets", expectedExceptions = UnsupportedOperationException.class)
+    public void testMutators() {
+        ImmutableIntSpan frozen = new IntSpan("1-3").freeze();
+        frozen.add(4);
+    }
+
+    @Test(description = "Test frozen destinations", expectedExceptions = UnsupportedOperationException.class)
+    public void testDestination() {
+        ImmutableIntSpan frozen = new IntSpan("1-3").freeze();
+        new IntSpan("2-5").intersectInto(new IntSpan("3-4"), frozen);
+    }
+
+    @Test(description = "Test parsing mutators of frozen sets")
+    public void testParsers() throws IOException {
+        ImmutableIntSpan frozen = new IntSpan("1-3").freeze();
+        byte[]           bytes  = "10-20".getBytes(StandardCharsets.US_ASCII);
+
+        int caught = 0;
+        try {
+            frozen.add((CharSequence) new StringBuilder("10-20"));
+        } catch ( UnsupportedOperationException err ) {
+            caught++;
+        }
+        try {
+            frozen.add((CharSequence) "10-20", 0, 5);
+        } catch ( UnsupportedOperationException err ) {
+            caught++;
+        }
+        try {
+            frozen.add(bytes, 0, bytes.length);
+        } catch ( UnsupportedOperationException err ) {
+            caught++;
+        }
+        try {
+            frozen.add(ByteBuffer.wrap(bytes));
+        } catch ( UnsupportedOperationException err ) {
+            caught++;
+        }
+        try {
+            frozen.add(new StringReader("10-20"));
+        } catch ( UnsupportedOperationException err ) {
+            caught++;
+        }
+        Assert.assertEquals(caught, 5);
+
+        Assert.assertEquals(frozen.getEdges().size(), 2);
+        Assert.assertEquals(new IntSpan(frozen).toString(), "1-3");
+        Assert.assertEquals(frozen.cardinality(), 3);
+    }
+}
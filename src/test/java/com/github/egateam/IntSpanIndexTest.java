@@ -97,4 +97,34 @@ public class IntSpanIndexTest {
 
         }
     }
+
+    @Test(description = "Test slice")
+    public void testSlice() {
+        IntSpan set = new IntSpan("1-10,21-30,41-50");
+
+        Assert.assertEquals(set.slice(1, 1).toString(), "1");
+        Assert.assertEquals(set.slice(5, 15).toString(), "5-10,21-25");
+        Assert.assertEquals(set.slice(10, 21).toString(), "10,21-30,41");
+        Assert.assertEquals(set.slice(11, 20).toString(), "21-30");
+        Assert.assertEquals(set.slice(25, 100).toString(), "45-50");
+        Assert.assertEquals(set.slice(31, 40).toString(), "-");
+        Assert.assertEquals(set.slice(5, 4).toString(), "-");
+        Assert.assertEquals(new IntSpan("-").slice(1, 10).toString(), "-");
+
+        // index is rebuilt after mutation
+        Assert.assertEquals(set.cardinality(), 30);
+        set.remove(5);
+        Assert.assertEquals(set.cardinality(), 29);
+        Assert.assertEquals(set.at(5), 6);
+        Assert.assertEquals(set.index(21), 10);
+
+        boolean caught = false;
+        try {
+            set.slice(0, 10);
+        } catch ( AssertionError err ) {
+            System.out.println(err.getMessage());
+            caught = true;
+        }
+        Assert.assertTrue(caught, "Doesn't catch error");
+    }
 }
@@ -0,0 +1,109 @@
+/*
+ * THE SOFTWARE IS PROVIDED "AS IS" WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE HEREBY DISCLAIMED.
+ */
+
+package com.github.egateam;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class IntSpanIslandTest {
+
+    @SuppressWarnings("CanBeFinal")
+    private static class TestData {
+        String set;
+        int    val;
+        String find;
+        String nearest;
+
+        TestData(String set, int val, String find, String nearest) {
+            this.set = set;
+            this.val = val;
+            this.find = find;
+            this.nearest = nearest;
+        }
+    }
+
+    private static final TestData[] tests =
+        {
+            //            set             val  find     nearest
+            new TestData("-", 1, "-", "-"),
+            new TestData("1-5", 3, "1-5", "-"),
+            new TestData("1-5", 6, "-", "1-5"),
+            new TestData("1-5,10-15", 3, "1-5", "10-15"),
+            new TestData("1-5,10-15", 7, "-", "1-5"),
+            new TestData("1-5,10-15", 8, "-", "10-15"),
+            new TestData("1-5,11-15", 8, "-", "1-5,11-15"),
+            new TestData("1-5,10-15,20-25", 12, "10-15", "1-5"),
+            new TestData("1-5,10-15,21-25", 13, "10-15", "1-5,21-25"),
+            new TestData("1-5,10-15,20-25", 30, "-", "20-25"),
+        };
+
+    @Test(description = "Test islands of integers")
+    public void testIslands() {
+        for ( TestData t : tests ) {
+            String  message = "Test " + t.set + " " + t.val;
+            IntSpan set     = new IntSpan(t.set);
+
+            Assert.assertEquals(set.findIslands(t.val).toString(), t.find, message + " find");
+            Assert.assertEquals(set.nearestIsland(t.val).toString(), t.nearest, message + " nearest");
+        }
+    }
+
+    @Test(description = "Test islands of sets")
+    public void testIslandsOfSets() {
+        IntSpan set = new IntSpan("1-5,10-15,20-25,40-50");
+
+        Assert.assertEquals(set.numIslands(), 4);
+        Assert.assertEquals(set.findIslands(new IntSpan("3,12-22")).toString(), "1-5,10-15,20-25");
+        Assert.assertEquals(set.findIslands(new IntSpan("6-9,30")).toString(), "-");
+        Assert.assertEquals(set.nearestIsland(new IntSpan("30")).toString(), "20-25");
+        Assert.assertEquals(set.nearestIsland(new IntSpan("7-8,33")).toString(), "1-5,10-15");
+        // islands overlapping a span are not the nearest to it
+        Assert.assertEquals(set.nearestIsland(new IntSpan("1-25")).toString(), "40-50");
+
+        Assert.assertEquals(set.atIsland(1).toString(), "1-5");
+        Assert.assertEquals(set.atIsland(-1).toString(), "40-50");
+        Assert.assertEquals(set.atIsland(3).toString(), "20-25");
+
+        IntSpan mapped = set.mapIslands(new IntSpan.IslandMapper() {
+            @Override
+            public IntSpan map(int lower, int upper) {
+                return upper - lower >= 5 ? new IntSpan(lower - 1, upper + 1) : null;
+            }
+        });
+        Assert.assertEquals(mapped.toString(), "9-16,19-26,39-51");
+
+        boolean caught = false;
+        try {
+            set.atIsland(5);
+        } catch ( AssertionError err ) {
+            System.out.println(err.getMessage());
+            caught = true;
+        }
+        Assert.assertTrue(caught, "Doesn't catch error");
+    }
+
+    @Test(description = "Test island indexes of sorted integers")
+    public void testIndexes() {
+        IntSpan set = new IntSpan("1-5,10-15,20-25");
+
+        int[] vals = new int[]{-10, 1, 5, 6, 7, 8, 12, 17, 18, 30};
+        Assert.assertEquals(set.islandsOf(vals), new int[]{-1, 0, 0, -1, -1, -1, 1, -1, -1, -1});
+        Assert.assertEquals(set.nearestIslandIndexes(vals), new int[]{0, 0, 0, 0, 0, 1, 1, 1, 2, 2});
+
+        // unsorted integers give the same answers
+        int[] unsorted = new int[]{30, 12, -10, 7};
+        Assert.assertEquals(set.islandsOf(unsorted), new int[]{-1, 1, -1, -1});
+        Assert.assertEquals(set.nearestIslandIndexes(unsorted), new int[]{2, 1, 0, 0});
+
+        for ( int val : vals ) {
+            Assert.assertEquals(set.islandOf(val), set.islandsOf(new int[]{val})[0]);
+            Assert.assertEquals(set.nearestIslandIndex(val), set.nearestIslandIndexes(new int[]{val})[0]);
+        }
+
+        Assert.assertEquals(new IntSpan().nearestIslandIndex(1), -1);
+    }
+}
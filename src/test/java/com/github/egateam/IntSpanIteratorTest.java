@@ -0,0 +1,127 @@
+/*
+ * THE SOFTWARE IS PROVIDED "AS IS" WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE HEREBY DISCLAIMED.
+ */
+
+package com.github.egateam;
+
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.cursors.IntCursor;
+import com.carrotsearch.hppc.procedures.IntIntProcedure;
+import com.carrotsearch.hppc.procedures.IntProcedure;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class IntSpanIteratorTest {
+
+    private static final String[] runlists = {"-", "1", "1-3", "1-3,5,8-11", "-5--3,0,2147483640-2147483645"};
+
+    @Test(description = "Test iterators and callbacks")
+    public void testIterate() {
+        for ( String runlist : runlists ) {
+            IntSpan set = new IntSpan(runlist);
+
+            // elements
+            final IntArrayList elements = new IntArrayList();
+            for ( IntCursor c : set ) {
+                Assert.assertEquals(c.index, elements.size());
+                elements.add(c.value);
+            }
+            Assert.assertEquals(elements.toArray(), set.toArray(), runlist);
+
+            elements.clear();
+            set.forEach(new IntProcedure() {
+                @Override
+                public void apply(int value) {
+                    elements.add(value);
+                }
+            });
+            Assert.assertEquals(elements.toArray(), set.toArray(), runlist);
+
+            // spans
+            final IntArrayList ranges = new IntArrayList();
+            IntSpanCursor      cursor = set.spanCursor();
+            while ( cursor.next() ) {
+                ranges.add(cursor.lower(), cursor.upper());
+            }
+            Assert.assertFalse(cursor.next());
+            Assert.assertEquals(ranges.toArray(), set.ranges().toArray(), runlist);
+
+            ranges.clear();
+            set.forEachSpan(new IntIntProcedure() {
+                @Override
+                public void apply(int lower, int upper) {
+                    ranges.add(lower, upper);
+                }
+            });
+            Assert.assertEquals(ranges.toArray(), set.ranges().toArray(), runlist);
+        }
+
+        Iterator<IntCursor> iterator = new IntSpan().iterator();
+        Assert.assertFalse(iterator.hasNext());
+        boolean caught = false;
+        try {
+            iterator.next();
+        } catch ( NoSuchElementException err ) {
+            caught = true;
+        }
+        Assert.assertTrue(caught, "Doesn't catch error");
+    }
+
+    private static class Count extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final IntSpanCursor cursor;
+
+        Count(IntSpanCursor cursor) {
+            this.cursor = cursor;
+        }
+
+        @Override
+        protected Long compute() {
+            IntSpanCursor prefix = cursor.remaining() > 8 ? cursor.trySplit() : null;
+            if ( prefix != null ) {
+                Count left = new Count(prefix);
+                left.fork();
+                long right = new Count(cursor).compute();
+                return left.join() + right;
+            }
+
+            long count = 0;
+            while ( cursor.next() ) {
+                count += cursor.upper() - cursor.lower() + 1;
+            }
+            return count;
+        }
+    }
+
+    @Test(description = "Test splitting cursors")
+    public void testSplit() {
+        IntSpan set = new IntSpanGenerator(1).spans(1000).generate();
+
+        IntSpanCursor cursor = set.spanCursor();
+        Assert.assertTrue(cursor.next());
+        Assert.assertEquals(cursor.remaining(), 999);
+
+        IntSpanCursor prefix = cursor.trySplit();
+        Assert.assertNotNull(prefix);
+        Assert.assertEquals(prefix.remaining(), 499);
+        Assert.assertEquals(cursor.remaining(), 500);
+        Assert.assertTrue(prefix.next());
+        Assert.assertEquals(prefix.index(), 1);
+        Assert.assertTrue(cursor.next());
+        Assert.assertEquals(cursor.index(), 500);
+
+        IntSpanCursor single = new IntSpan("1-5").spanCursor();
+        Assert.assertNull(single.trySplit());
+
+        long count = new ForkJoinPool(4).invoke(new Count(set.spanCursor()));
+        Assert.assertEquals(count, set.cardinality());
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * THE SOFTWARE IS PROVIDED "AS IS" WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE HEREBY DISCLAIMED.
+ */
+
+package com.github.egateam;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class IntSpanLongTest {
+
+    private static final String[][] tests = {
+        //  A               B         U             I          X                 A-B
+        {"-", "-", "-", "-", "-", "-"},
+        {"1", "2", "1-2", "-", "1-2", "1"},
+        {"3-9", "5-12", "3-12", "5-9", "3-4,10-12", "3-4"},
+        {"1-3,5,8-11", "1-6", "1-6,8-11", "1-3,5", "4,6,8-11", "8-11"},
+        {"1-2,5-6,9-10", "2-5,10", "1-6,9-10", "2,5,10", "1,3-4,6,9", "1,6,9"},
+        {"4000000000-6000000000", "5000000000-7000000000", "4000000000-7000000000", "5000000000-6000000000", "4000000000-4999999999,6000000001-7000000000", "4000000000-4999999999"},
+    };
+
+    @Test(description = "Test operations of long sets")
+    public void testLong() {
+        for ( String[] t : tests ) {
+            String   message = "Test " + t[0] + " " + t[1];
+            LongSpan A       = new LongSpan(t[0]);
+            LongSpan B       = new LongSpan(t[1]);
+
+            Assert.assertEquals(A.toString(), t[0], message);
+            Assert.assertEquals(A.union(B).toString(), t[2], message + " union");
+            Assert.assertEquals(A.intersect(B).toString(), t[3], message + " intersect");
+            Assert.assertEquals(A.xor(B).toString(), t[4], message + " xor");
+            Assert.assertEquals(A.diff(B).toString(), t[5], message + " diff");
+
+            Assert.assertEquals(A.copy().merge(B).toString(), t[2], message + " merge");
+            Assert.assertEquals(A.copy().subtract(B).toString(), t[5], message + " subtract");
+            Assert.assertEquals(A.union(B).superset(A), true, message);
+            Assert.assertEquals(A.intersect(B).subset(B), true, message);
+        }
+    }
+
+    @Test(description = "Beyond int")
+    public void testBeyondInt() {
+        LongSpan set = new LongSpan("5000000000-5000000010, 1-10,3-4");
+        Assert.assertEquals(set.toString(), "1-10,5000000000-5000000010");
+        Assert.assertEquals(set.cardinality(), 21L);
+        Assert.assertTrue(set.contains(5000000005L));
+        Assert.assertFalse(set.contains(11L));
+        Assert.assertEquals(set.max(), 5000000010L);
+        Assert.assertEquals(set.at(11), 5000000000L);
+        Assert.assertEquals(set.at(-1), 5000000010L);
+        Assert.assertEquals(set.index(5000000001L), 12L);
+        Assert.assertEquals(set.slice(10, 12).toString(), "10,5000000000-5000000001");
+        Assert.assertEquals(set.holes().toString(), "11-4999999999");
+        Assert.assertEquals(set.fill(5000000000L).toString(), "1-5000000010");
+        Assert.assertEquals(set.excise(11).toString(), "5000000000-5000000010");
+        Assert.assertEquals(set.pad(1).toString(), "0-11,4999999999-5000000011");
+
+        // more elements than an int can count
+        LongSpan large = new LongSpan(0, 9999999999L);
+        Assert.assertEquals(large.cardinality(), 10000000000L);
+        Assert.assertEquals(large.removePair(100, 199).cardinality(), 9999999900L);
+
+        LongSpan universal = new LongSpan().invert();
+        Assert.assertTrue(universal.isUniversal());
+        Assert.assertEquals(universal.min(), LongSpan.getNegInf());
+        Assert.assertEquals(universal.max(), LongSpan.getPosInf());
+        Assert.assertTrue(universal.contains(Long.MAX_VALUE - 2));
+        Assert.assertFalse(universal.contains(Long.MAX_VALUE));
+        Assert.assertTrue(universal.complement().isEmpty());
+        Assert.assertEquals(new LongSpan("-").isEmpty(), true);
+    }
+
+    @Test(description = "Conversions with IntSpan")
+    public void testIntSpan() {
+        IntSpan  ints  = new IntSpan("-5-3,7,100-200");
+        LongSpan longs = new LongSpan(ints);
+        Assert.assertEquals(longs.toString(), ints.toString());
+        Assert.assertEquals(longs.cardinality(), (long) ints.cardinality());
+        Assert.assertEquals(longs.toIntSpan().toString(), ints.toString());
+        Assert.assertEquals(new LongSpan(new long[]{3, 1, 2, 7}).toString(), "1-3,7");
+        Assert.assertEquals(longs.toArray().length, ints.toArray().length);
+
+        boolean caught = false;
+        try {
+            new LongSpan(5000000000L).toIntSpan();
+        } catch ( AssertionError err ) {
+            caught = true;
+        }
+        Assert.assertTrue(caught);
+    }
+
+    @Test(description = "Upper bounds that can't be incremented")
+    public void testOverflow() {
+        int caught = 0;
+        try {
+            new LongSpan(5, Long.MAX_VALUE);
+        } catch ( AssertionError err ) {
+            caught++;
+        }
+        try {
+            new LongSpan(new long[]{3, 1, Long.MAX_VALUE});
+        } catch ( AssertionError err ) {
+            caught++;
+        }
+        Assert.assertEquals(caught, 2);
+    }
+
+    @Test(description = "Malformed runlists")
+    public void testBadRunlist() {
+        String[] bads = {"1-", "a", "1,,2", "5-1", "--1"};
+        for ( String bad : bads ) {
+            boolean caught = false;
+            try {
+                new LongSpan(bad);
+            } catch ( AssertionError err ) {
+                caught = true;
+            }
+            Assert.assertTrue(caught, bad);
+        }
+    }
+}
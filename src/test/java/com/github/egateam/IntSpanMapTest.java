@@ -0,0 +1,140 @@
+/*
+ * THE SOFTWARE IS PROVIDED "AS IS" WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE HEREBY DISCLAIMED.
+ */
+
+package com.github.egateam;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+public class IntSpanMapTest {
+
+    private static IntSpanMap readString(String yaml) throws IOException {
+        return IntSpanMap.read(new StringReader(yaml));
+    }
+
+    @Test(description = "Test per key operations")
+    public void testOperations() throws IOException {
+        IntSpanMap A = readString("---\n1: 1-3,5,8-11\n2: 1-10\n");
+        IntSpanMap B = readString("---\n1: 1-6\n'3': 100\n");
+
+        Assert.assertEquals(A.size(), 2);
+        Assert.assertEquals(A.cardinality(), 18);
+
+        IntSpanMap U = A.union(B);
+        Assert.assertEquals(U.keySet().toArray(), new String[]{"1", "2", "3"});
+        Assert.assertEquals(U.get("1").toString(), "1-6,8-11");
+        Assert.assertEquals(U.get("2").toString(), "1-10");
+        Assert.assertEquals(U.get("3").toString(), "100");
+
+        IntSpanMap I = A.intersect(B, new ForkJoinPool(2));
+        Assert.assertEquals(I.keySet().toArray(), new String[]{"1"});
+        Assert.assertEquals(I.get("1").toString(), "1-3,5");
+
+        IntSpanMap D = A.diff(B);
+        Assert.assertEquals(D.keySet().toArray(), new String[]{"1", "2"});
+        Assert.assertEquals(D.get("1").toString(), "8-11");
+        Assert.assertEquals(D.get("2").toString(), "1-10");
+
+        IntSpanMap X = A.xor(B);
+        Assert.assertEquals(X.get("1").toString(), "4,6,8-11");
+        Assert.assertEquals(X.get("3").toString(), "100");
+
+        Assert.assertEquals(A.coverage(B), 4.0 / 18, 1e-9);
+        Assert.assertEquals(new IntSpanMap().coverage(B), 0.0);
+    }
+
+    @Test(description = "Test copying frozen sets")
+    public void testCopyFrozen() {
+        Map<String, IntSpan> frozen = new LinkedHashMap<>();
+        frozen.put("1", new IntSpan("1-3").freeze());
+
+        IntSpanMap map = new IntSpanMap(frozen);
+        map.getOrCreate("1").add(5);
+        Assert.assertEquals(map.get("1").toString(), "1-3,5");
+        Assert.assertEquals(frozen.get("1").toString(), "1-3");
+    }
+
+    @Test(description = "Test reading and writing runlist YAML")
+    public void testYaml() throws IOException {
+        IntSpanMap map;
+        try ( Reader reader = new InputStreamReader(getClass().getResourceAsStream("/r1.yml"), StandardCharsets.UTF_8) ) {
+            map = IntSpanMap.read(reader);
+        }
+        Assert.assertEquals(map.keySet().toArray(), new String[]{"1"});
+        Assert.assertEquals(map.get("1").min(), 3760);
+
+        StringWriter writer = new StringWriter();
+        map.write(writer);
+        Assert.assertTrue(writer.toString().startsWith("---\n1: 3760-3913,"));
+
+        IntSpanMap copy = readString(writer.toString());
+        Assert.assertTrue(copy.get("1").equals(map.get("1")));
+
+        // comments, blank lines and quoted keys
+        IntSpanMap other = readString("# masks\n---\n\n\"chr 1\": 1-5\nX: -\n...\n");
+        Assert.assertEquals(other.get("chr 1").toString(), "1-5");
+        Assert.assertTrue(other.get("X").isEmpty());
+    }
+
+    private static File writeTemp(String yaml) throws IOException {
+        File file = File.createTempFile("jintspan", ".yml");
+        file.deleteOnExit();
+        try ( Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8) ) {
+            writer.write(yaml);
+        }
+
+        return file;
+    }
+
+    @Test(description = "Test the streaming loader")
+    public void testLoader() throws IOException {
+        String yaml = "--- \r\n1: 1-5,  # first\r\n  7-9,\n\n  20\n染色体: '100-200'\n1: 30\n...\n";
+
+        IntSpanMap fromReader = RunlistYaml.read(new StringReader(yaml));
+        IntSpanMap fromFile   = RunlistYaml.read(writeTemp(yaml));
+
+        for ( IntSpanMap map : new IntSpanMap[]{fromReader, fromFile} ) {
+            Assert.assertEquals(map.keySet().toArray(), new String[]{"1", "染色体"});
+            Assert.assertEquals(map.get("1").toString(), "1-5,7-9,20,30");
+            Assert.assertEquals(map.get("染色体").toString(), "100-200");
+        }
+
+        List<File> files = Arrays.asList(writeTemp("1: 1-5\n2: 10\n"), writeTemp("2: 11-20\n3: 1\n"));
+
+        List<IntSpanMap> maps = RunlistYaml.readAll(files);
+        Assert.assertEquals(maps.size(), 2);
+        Assert.assertEquals(maps.get(1).get("2").toString(), "11-20");
+
+        IntSpanMap merged = RunlistYaml.readMerged(files);
+        Assert.assertEquals(merged.keySet().toArray(), new String[]{"1", "2", "3"});
+        Assert.assertEquals(merged.get("2").toString(), "10-20");
+
+        boolean caught = false;
+        try {
+            RunlistYaml.read(new StringReader("1: 1-5\nbad line\n"));
+        } catch ( AssertionError err ) {
+            System.out.println(err.getMessage());
+            caught = true;
+        }
+        Assert.assertTrue(caught, "Doesn't catch error");
+    }
+}
@@ -9,6 +9,10 @@ package com.github.egateam;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
 @SuppressWarnings("CanBeFinal")
 public class IntSpanMembershipTest {
 
@@ -74,4 +78,51 @@ public class IntSpanMembershipTest {
         Assert.assertFalse(containsAll);
         Assert.assertTrue(containsAny);
     }
+
+    @Test(description = "Test batch membership")
+    public void testBatch() {
+        IntSpan set = new IntSpanGenerator(1).spans(1000).negInf(true).generate();
+
+        Random random = new Random(1);
+        int[]  ints   = new int[5000];
+        for ( int i = 0; i < ints.length; i++ ) {
+            ints[i] = random.nextInt(set.max() + 200) - 100;
+        }
+        ints[0] = IntSpan.getNegInf();
+        ints[1] = Integer.MAX_VALUE;
+        ints[2] = Integer.MIN_VALUE;
+
+        // unsorted and sorted
+        int[] sorted = ints.clone();
+        Arrays.sort(sorted);
+        for ( int[] queries : new int[][]{ints, sorted} ) {
+            boolean[] out  = new boolean[queries.length];
+            int       hits = 0;
+            set.contains(queries, out);
+            BitSet bits = set.containsBits(queries);
+
+            for ( int k = 0; k < queries.length; k++ ) {
+                boolean expected = set.contains(queries[k]);
+                Assert.assertEquals(out[k], expected, "Query " + queries[k]);
+                Assert.assertEquals(bits.get(k), expected, "Query " + queries[k]);
+                if ( expected ) hits++;
+            }
+            Assert.assertEquals(set.countContained(queries), hits);
+            Assert.assertTrue(hits > 0 && hits < queries.length);
+        }
+
+        Assert.assertTrue(set.containsAll(new int[]{IntSpan.getNegInf(), set.max()}));
+        Assert.assertFalse(set.containsAll(new int[]{IntSpan.getNegInf(), Integer.MAX_VALUE}));
+        Assert.assertTrue(set.containsAny(new int[]{Integer.MAX_VALUE, set.max()}));
+        Assert.assertEquals(new IntSpan().countContained(sorted), 0);
+
+        boolean caught = false;
+        try {
+            set.contains(ints, new boolean[1]);
+        } catch ( AssertionError err ) {
+            System.out.println(err.getMessage());
+            caught = true;
+        }
+        Assert.assertTrue(caught, "Doesn't catch error");
+    }
 }
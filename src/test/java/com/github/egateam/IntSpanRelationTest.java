@@ -47,6 +47,16 @@ public class IntSpanRelationTest {
             {1, 1, 0, 0, 0, 1},
         };
 
+    private static int[][] overlaps =
+        {
+            {0, 0, 0, 0, 0, 0},
+            {0, 1, 0, 1, 0, 1},
+            {0, 0, 1, 1, 1, 0},
+            {0, 1, 1, 1, 1, 1},
+            {0, 0, 1, 1, 1, 1},
+            {0, 1, 0, 1, 1, 1},
+        };
+
     @Test(description = "Test relations from runlist")
     public void testRelation() {
         for ( int i = 0; i < sets.length; i++ ) {
@@ -66,8 +76,24 @@ public class IntSpanRelationTest {
                 // superset
                 Assert.assertEquals(A.superset(B), superset[i][j] != 0, message + " superset");
 
+                // overlaps
+                Assert.assertEquals(A.overlaps(B), overlaps[i][j] != 0, message + " overlaps");
+                Assert.assertEquals(A.intersects(B), overlaps[i][j] != 0, message + " intersects");
+                Assert.assertEquals(A.disjoint(B), overlaps[i][j] == 0, message + " disjoint");
+
             }
         }
 
     }
+
+    @Test(description = "Test touches")
+    public void testTouches() {
+        Assert.assertTrue(new IntSpan("1-3").touches(new IntSpan("4-6")));
+        Assert.assertTrue(new IntSpan("4-6").touches(new IntSpan("1-3")));
+        Assert.assertTrue(new IntSpan("1-3").touches(new IntSpan("2-6")));
+        Assert.assertFalse(new IntSpan("1-3").touches(new IntSpan("5-6")));
+        Assert.assertFalse(new IntSpan("1-3").overlaps(new IntSpan("4-6")));
+        Assert.assertFalse(new IntSpan("-").touches(new IntSpan("1-3")));
+        Assert.assertTrue(new IntSpan("1,10,20").touches(new IntSpan("5-9")));
+    }
 }
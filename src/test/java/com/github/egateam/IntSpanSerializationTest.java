@@ -0,0 +1,114 @@
+/*
+ * THE SOFTWARE IS PROVIDED "AS IS" WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE HEREBY DISCLAIMED.
+ */
+
+package com.github.egateam;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public class IntSpanSerializationTest {
+
+    private static final String[] sets =
+        {
+            "-", "0", "-1", "1-3,5,8-11", "-100--50,-3-3,1000000-2000000",
+            String.format("%d-0", IntSpan.getNegInf()),
+            String.format("0-%d", IntSpan.getPosInf()),
+            String.format("%d-%d", IntSpan.getNegInf(), IntSpan.getPosInf()),
+            String.format("%d-0,5-%d", IntSpan.getNegInf(), IntSpan.getPosInf()),
+        };
+
+    @Test(description = "Test binary round trips")
+    public void testRoundTrip() throws IOException {
+        for ( String runlist : sets ) {
+            String  message = "Test " + runlist;
+            IntSpan set     = new IntSpan(runlist);
+
+            // DataOutput
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream      out   = new DataOutputStream(bytes);
+            set.writeTo(out);
+            set.writeTo(out);
+            Assert.assertEquals(bytes.size(), set.serializedSize() * 2, message);
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+            Assert.assertEquals(IntSpan.readFrom(in).toString(), runlist, message);
+            Assert.assertEquals(IntSpan.readFrom(in).toString(), runlist, message);
+
+            // ByteBuffer
+            ByteBuffer buffer = ByteBuffer.allocate(set.serializedSize() * 2);
+            set.writeTo(buffer);
+            set.writeTo(buffer);
+            Assert.assertFalse(buffer.hasRemaining(), message);
+
+            buffer.flip();
+            Assert.assertEquals(IntSpan.readFrom(buffer).toString(), runlist, message);
+            Assert.assertEquals(IntSpan.readFrom(buffer).toString(), runlist, message);
+            Assert.assertFalse(buffer.hasRemaining(), message);
+        }
+    }
+
+    @Test(description = "Test compactness")
+    public void testSize() {
+        IntSpan set = new IntSpan();
+        for ( int i = 0; i < 1000; i++ ) {
+            set.addPair(i * 100, i * 100 + 50);
+        }
+
+        // version, spans (2 bytes), cardinality (3 bytes), first edge and one byte per delta
+        Assert.assertEquals(set.serializedSize(), 1 + 2 + 3 + 1 + 1999);
+    }
+
+    @Test(description = "Test corrupted data", expectedExceptions = AssertionError.class)
+    public void testCorrupted() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        new IntSpan("1-3,5").writeTo(buffer);
+        buffer.flip();
+        buffer.put(0, (byte) 2); // bad version
+
+        IntSpan.readFrom(buffer);
+    }
+
+    @Test(description = "Test corrupted headers and deltas")
+    public void testCorruptedEdges() throws IOException {
+        byte[][] bads = {
+            // 2^29 spans in a few bytes
+            {1, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x02, 0, 2, 1, 1},
+            // 1,10,5,8, the delta -5 is a 5-byte varint and the cardinality matches
+            {1, 2, 12, 2, 9, (byte) 0xFB, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F, 3},
+            // truncated in the version, the header and a multi-byte edge
+            {},
+            {1, (byte) 0x80},
+            {1, 1, 5, (byte) 0x80, (byte) 0x80},
+        };
+
+        for ( byte[] bad : bads ) {
+            boolean caught = false;
+            try {
+                IntSpan.readFrom(ByteBuffer.wrap(bad));
+            } catch ( AssertionError err ) {
+                System.out.println(err.getMessage());
+                caught = true;
+            }
+            Assert.assertTrue(caught, "Doesn't catch error");
+
+            caught = false;
+            try {
+                IntSpan.readFrom(new DataInputStream(new ByteArrayInputStream(bad)));
+            } catch ( AssertionError | EOFException err ) {
+                caught = true;
+            }
+            Assert.assertTrue(caught, "Doesn't catch error");
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * THE SOFTWARE IS PROVIDED "AS IS" WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE HEREBY DISCLAIMED.
+ */
+
+package com.github.egateam;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class IntSpanStoreTest {
+
+    @Test(description = "Test writing and reading a store")
+    public void testStore() throws IOException {
+        Map<String, IntSpan> sets = new LinkedHashMap<>();
+        sets.put("1", new IntSpan("1-3,5,8-11"));
+        sets.put("X", new IntSpan("-"));
+        sets.put("chrUn_gl000220", new IntSpan("100-200,300-400"));
+        sets.put("染色体", new IntSpan(String.format("%d-0", IntSpan.getNegInf())));
+
+        File file = File.createTempFile("jintspan", ".isps");
+        file.deleteOnExit();
+        IntSpanStore.write(file, sets);
+
+        try ( IntSpanStore store = IntSpanStore.open(file) ) {
+            Assert.assertEquals(store.size(), 4);
+            Assert.assertEquals(store.names().toArray(), sets.keySet().toArray());
+
+            for ( Map.Entry<String, IntSpan> entry : sets.entrySet() ) {
+                Assert.assertTrue(store.contains(entry.getKey()));
+                Assert.assertEquals(store.get(entry.getKey()).toString(), entry.getValue().toString());
+            }
+
+            // decoded once
+            Assert.assertSame(store.get("1"), store.get("1"));
+
+            Assert.assertFalse(store.contains("2"));
+            Assert.assertNull(store.get("2"));
+        }
+    }
+
+    @Test(description = "Test opening a non-store file", expectedExceptions = IOException.class)
+    public void testBadFile() throws IOException {
+        File file = File.createTempFile("jintspan", ".isps");
+        file.deleteOnExit();
+        try ( FileOutputStream out = new FileOutputStream(file) ) {
+            byte[] bytes = new byte[64];
+            Arrays.fill(bytes, (byte) 'x');
+            out.write(bytes);
+        }
+
+        IntSpanStore.open(file);
+    }
+
+    @Test(description = "Test opening corrupted directories")
+    public void testCorrupted() throws IOException {
+        Map<String, IntSpan> sets = new LinkedHashMap<>();
+        sets.put("chr1", new IntSpan("1-3,5,8-11"));
+
+        // {position, value} patched into the file: count, name length and offset of the entry
+        long[][] patches = {
+            {8, Integer.MAX_VALUE}, {8, -1}, {12, -1}, {12, Integer.MAX_VALUE}, {12, 1 << 20},
+            {20, -1}, {20, Long.MAX_VALUE}, {28, -1},
+        };
+
+        for ( long[] patch : patches ) {
+            File file = File.createTempFile("jintspan", ".isps");
+            file.deleteOnExit();
+            IntSpanStore.write(file, sets);
+            try ( RandomAccessFile raf = new RandomAccessFile(file, "rw") ) {
+                raf.seek(patch[0]);
+                if ( patch[0] == 20 ) {
+                    raf.writeLong(patch[1]);
+                } else {
+                    raf.writeInt((int) patch[1]);
+                }
+            }
+
+            boolean caught = false;
+            try {
+                IntSpanStore.open(file).close();
+            } catch ( IOException err ) {
+                caught = true;
+            }
+            Assert.assertTrue(caught, "Doesn't catch error at " + patch[0]);
+        }
+    }
+}